@@ -0,0 +1,68 @@
+package com.redsquare.flashfluency.logic;
+
+import com.redsquare.flashfluency.system.Settings;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+// run on its own rather than with the unit tests, with a large heap: java -Xmx4g CardStoreBenchmarks
+public class CardStoreBenchmarks {
+    private static final int CARDS = 1_000_000, GC_ROUNDS = 5;
+    private static final String THRESHOLD = "columnar_storage_threshold";
+
+    public static void main(final String[] args) {
+        final int previous = Settings.getColumnarStorageThreshold();
+
+        try {
+            final long objectBytes = retainedByDeck("0"), columnarBytes = retainedByDeck("1");
+
+            System.out.println(CARDS + " cards: deck of FlashCards " + (objectBytes >> 20) +
+                    " MB, deck of columns " + (columnarBytes >> 20) + " MB (" +
+                    (objectBytes / CARDS) + " vs " + (columnarBytes / CARDS) + " bytes per card)");
+        } finally {
+            Settings.set(THRESHOLD, String.valueOf(previous));
+        }
+    }
+
+    // the heap a deck of synthetic cards keeps once the cards it was made from are gone
+    private static long retainedByDeck(final String threshold) {
+        Settings.set(THRESHOLD, threshold);
+
+        final long baseline = usedHeap();
+        final Deck deck = Deck.fromParsedDeckFile("synthetic", "", "", new HashSet<>(), syntheticCards());
+        final long retained = usedHeap() - baseline;
+
+        final FlashCard sample = deck.getFlashCard("clue number 123456");
+
+        if (deck.getNumOfFlashCards() != CARDS || !sample.getAnswer().equals("answer number 123456") ||
+                deck.getFlashCardFromCode(sample.getCode()).orElseThrow() != sample)
+            throw new IllegalStateException("the deck lost cards with threshold " + threshold);
+
+        return retained;
+    }
+
+    private static Map<String, FlashCard> syntheticCards() {
+        final Pot[] pots = Pot.values();
+        final Map<String, FlashCard> flashCards = new HashMap<>();
+
+        for (int i = 0; i < CARDS; i++) {
+            final String clue = "clue number " + i;
+            flashCards.put(clue, FlashCard.fromParsedDeckFile(clue, "answer number " + i,
+                    i % 2 == 0, LocalDate.now().plusDays(i % 30), pots[i % pots.length],
+                    i % 4, i % 7, i % 11, CardCode.unpack(i + 1)));
+        }
+
+        return flashCards;
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < GC_ROUNDS; i++)
+            System.gc();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
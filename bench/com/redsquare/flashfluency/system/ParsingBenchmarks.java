@@ -0,0 +1,269 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.Deck;
+import com.redsquare.flashfluency.logic.FlashCard;
+import com.redsquare.flashfluency.logic.Pot;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.*;
+
+// run on its own rather than with the unit tests: java ParsingBenchmarks
+public class ParsingBenchmarks {
+    private static final int TOP_LEVEL_DIRS = 100, SUB_DIRS = 100,
+            DECKS_PER_DIR = 9, RUNS = 5, CARDS_IN_DECK = 200_000,
+            DEEP_TREE_DEPTH = 300, DECKS_PER_LEVEL = 10;
+
+    public static void main(final String[] args) throws Exception {
+        try {
+            directoryMirrorParseBenchmark();
+            directoryMirrorEncodeBenchmark();
+            deckFileParseBenchmark();
+        } finally {
+            FFDirectory.resetLibraryIndexes();
+        }
+    }
+
+    private static void directoryMirrorParseBenchmark() throws Exception {
+        final String mirror = syntheticMirror();
+        final int expectedNodes = TOP_LEVEL_DIRS * (1 + SUB_DIRS * (1 + DECKS_PER_DIR));
+
+        long best = Long.MAX_VALUE;
+
+        for (int run = 0; run < RUNS; run++) {
+            final FFDirectory root = FFDirectory.createRoot();
+
+            final long start = System.nanoTime();
+            DirectoryParser.parse(new StringReader(mirror), root);
+            best = Math.min(best, System.nanoTime() - start);
+
+            check(expectedNodes == countNodes(root), "parsed tree has the wrong size");
+        }
+
+        System.out.println("Parsed " + expectedNodes + " directories and decks (" +
+                mirror.length() + " chars) in " + (best / 1_000_000) + " ms");
+    }
+
+    private static void directoryMirrorEncodeBenchmark() throws Exception {
+        // a wide tree and a deep one, side by side under the root
+        final FFDirectory root = FFDirectory.createRoot();
+        DirectoryParser.parse(new StringReader(syntheticMirror()), root);
+
+        FFDirectory level = root.addChildDirectoryR("deep");
+
+        for (int depth = 0; depth < DEEP_TREE_DEPTH; depth++) {
+            for (int k = 0; k < DECKS_PER_LEVEL; k++)
+                level.addDeck("deck " + k);
+
+            level = level.addChildDirectoryR("level " + depth);
+        }
+
+        final File mirror = Files.createTempFile("ff-mirror", ".txt").toFile();
+        long bestLegacy = Long.MAX_VALUE, bestStreaming = Long.MAX_VALUE;
+
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+
+            try (BufferedWriter bw = Files.newBufferedWriter(mirror.toPath(), StandardCharsets.UTF_8)) {
+                bw.write(legacyEncode(root, 0));
+            }
+
+            bestLegacy = Math.min(bestLegacy, System.nanoTime() - start);
+
+            start = System.nanoTime();
+
+            try (BufferedWriter bw = Files.newBufferedWriter(mirror.toPath(), StandardCharsets.UTF_8)) {
+                root.encode(bw, 0);
+            }
+
+            bestStreaming = Math.min(bestStreaming, System.nanoTime() - start);
+        }
+
+        final String streamed = Files.readString(mirror.toPath(), StandardCharsets.UTF_8);
+        check(legacyEncode(root, 0).equals(streamed), "streamed mirror differs");
+
+        final FFDirectory reparsed = FFDirectory.createRoot();
+        DirectoryParser.parse(new StringReader(streamed), reparsed);
+        check(countNodes(root) == countNodes(reparsed), "reparsed tree has the wrong size");
+
+        System.out.println("Encoded " + countNodes(root) + " directories and decks, " +
+                DEEP_TREE_DEPTH + " levels deep (" + streamed.length() + " chars): concatenated " +
+                (bestLegacy / 1_000_000) + " ms, streamed " + (bestStreaming / 1_000_000) + " ms");
+
+        mirror.delete();
+    }
+
+    private static void deckFileParseBenchmark() throws Exception {
+        final File dir = Files.createTempDirectory("ff-bench").toFile();
+        final String filepath = dir.getPath() + File.separator + "vocab" + Settings.DECK_FILE_EXTENSION;
+
+        DeckFileParser.saveToFile(filepath, "benchmark deck", Set.of("a", "b"), syntheticCards());
+
+        long bestLegacy = Long.MAX_VALUE, bestStreaming = Long.MAX_VALUE;
+
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            final Map<String, FlashCard> legacy = legacyParseFlashCards(filepath);
+            bestLegacy = Math.min(bestLegacy, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            final Deck streamed = DeckFileParser.read("vocab", filepath);
+            bestStreaming = Math.min(bestStreaming, System.nanoTime() - start);
+
+            check(legacy.size() == streamed.getNumOfFlashCards(), "parsers read different decks");
+        }
+
+        System.out.println("Parsed " + CARDS_IN_DECK + " cards: split-based " +
+                (bestLegacy / 1_000_000) + " ms (" + cardsPerSecond(bestLegacy) +
+                " cards/s), streaming " + (bestStreaming / 1_000_000) + " ms (" +
+                cardsPerSecond(bestStreaming) + " cards/s)");
+
+        new File(filepath).delete();
+        dir.delete();
+    }
+
+    private static Map<String, FlashCard> syntheticCards() {
+        final Map<String, FlashCard> cards = new HashMap<>();
+        final Pot[] pots = Pot.values();
+        final Random random = new Random(42);
+
+        for (int i = 0; i < CARDS_IN_DECK; i++) {
+            final String clue = "clue number " + i;
+            cards.put(clue, FlashCard.fromParsedDeckFile(clue, "answer {a|b} " + i,
+                    random.nextBoolean(), LocalDate.now().plusDays(random.nextInt(40) - 20),
+                    pots[random.nextInt(pots.length)], random.nextInt(5),
+                    random.nextInt(10), 10, FlashCard.generateNewCode()));
+        }
+
+        return cards;
+    }
+
+    // the original split-based parser, kept as a baseline
+    private static Map<String, FlashCard> legacyParseFlashCards(final String filepath) throws Exception {
+        final Map<String, FlashCard> flashCards = new HashMap<>();
+
+        try (BufferedReader br = new BufferedReader(new FileReader(filepath))) {
+            final List<String> lines = br.lines().toList();
+
+            for (int i = 3; i < lines.size(); i++) {
+                final String l = lines.get(i).trim();
+
+                if (l.equals(""))
+                    break;
+
+                final String[] fields = l.split(";");
+                final String[] date = fields[3].split("-");
+                final String[] record = fields[6].split("/");
+
+                flashCards.put(fields[0], FlashCard.fromParsedDeckFile(fields[0], fields[1],
+                        Boolean.parseBoolean(fields[2]),
+                        LocalDate.of(Integer.parseInt(date[2]), Integer.parseInt(date[1]),
+                                Integer.parseInt(date[0])),
+                        Pot.valueOf(fields[4]), Integer.parseInt(fields[5]),
+                        Integer.parseInt(record[0]), Integer.parseInt(record[1]), fields[7]));
+            }
+        }
+
+        return flashCards;
+    }
+
+    private static void check(final boolean condition, final String failure) {
+        if (!condition)
+            throw new IllegalStateException(failure);
+    }
+
+    private static long cardsPerSecond(final long nanos) {
+        return CARDS_IN_DECK * 1_000_000_000L / Math.max(1L, nanos);
+    }
+
+    // the original concatenating encoder, kept as a baseline
+    private static String legacyEncode(final FFFile file, final int depthLevel) {
+        final String encoded = (depthLevel == 0 ? "" : DirectoryParser.NEW_LINE +
+                DirectoryParser.TAB.repeat(depthLevel)) +
+                DirectoryParser.NAME_BOUND + file.getName() + DirectoryParser.NAME_BOUND;
+
+        if (!(file instanceof FFDirectory directory))
+            return encoded;
+
+        StringBuilder sb = new StringBuilder(encoded +
+                DirectoryParser.DIR_MARKER + DirectoryParser.SCOPE_OPENER);
+
+        Set<String> childrenNames = directory.getChildrenNames();
+        int i = 0;
+
+        for (String childName : childrenNames) {
+            sb.append(legacyEncode(directory.getChild(childName), depthLevel + 1));
+            i++;
+
+            if (i < childrenNames.size())
+                sb.append(DirectoryParser.SEPARATOR);
+        }
+
+        if (!childrenNames.isEmpty()) {
+            sb.append(DirectoryParser.NEW_LINE);
+            sb.append(DirectoryParser.TAB.repeat(depthLevel));
+        }
+
+        sb.append(DirectoryParser.SCOPE_CLOSER);
+        return sb.toString();
+    }
+
+    private static String syntheticMirror() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(DirectoryParser.NAME_BOUND).append(Settings.ROOT_CODE)
+                .append(DirectoryParser.NAME_BOUND).append(DirectoryParser.DIR_MARKER)
+                .append(DirectoryParser.SCOPE_OPENER);
+
+        for (int i = 0; i < TOP_LEVEL_DIRS; i++) {
+            if (i > 0)
+                sb.append(DirectoryParser.SEPARATOR);
+
+            sb.append(DirectoryParser.NEW_LINE).append(DirectoryParser.TAB)
+                    .append("\"dir ").append(i).append("\"->[");
+
+            for (int j = 0; j < SUB_DIRS; j++) {
+                if (j > 0)
+                    sb.append(DirectoryParser.SEPARATOR);
+
+                sb.append(DirectoryParser.NEW_LINE).append(DirectoryParser.TAB.repeat(2))
+                        .append("\"sub ").append(j).append("\"->[");
+
+                for (int k = 0; k < DECKS_PER_DIR; k++) {
+                    if (k > 0)
+                        sb.append(DirectoryParser.SEPARATOR);
+
+                    sb.append(DirectoryParser.NEW_LINE).append(DirectoryParser.TAB.repeat(3))
+                            .append("\"deck ").append(k).append("\"");
+                }
+
+                sb.append(DirectoryParser.NEW_LINE).append(DirectoryParser.TAB.repeat(2))
+                        .append(DirectoryParser.SCOPE_CLOSER);
+            }
+
+            sb.append(DirectoryParser.NEW_LINE).append(DirectoryParser.TAB)
+                    .append(DirectoryParser.SCOPE_CLOSER);
+        }
+
+        sb.append(DirectoryParser.NEW_LINE).append(DirectoryParser.SCOPE_CLOSER);
+        return sb.toString();
+    }
+
+    private static int countNodes(final FFDirectory directory) {
+        int count = 0;
+
+        for (String childName : directory.getChildrenNames()) {
+            count++;
+
+            if (directory.getChild(childName) instanceof FFDirectory child)
+                count += countNodes(child);
+        }
+
+        return count;
+    }
+}
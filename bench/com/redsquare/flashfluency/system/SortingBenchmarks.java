@@ -0,0 +1,105 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.Deck;
+import com.redsquare.flashfluency.logic.FlashCard;
+import com.redsquare.flashfluency.logic.Pot;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// run on its own rather than with the unit tests: java SortingBenchmarks
+public class SortingBenchmarks {
+    private static final int DECKS = 20_000, CARDS_PER_DECK = 100, RUNS = 5;
+    private static final String FLAG_COMPLETION = "-c", FLAG_DUE = "-d";
+
+    public static void main(final String[] args) {
+        try {
+            directoryListSortBenchmark();
+        } finally {
+            FFDirectory.resetLibraryIndexes();
+        }
+    }
+
+    private static void directoryListSortBenchmark() {
+        final FFDirectory directory = syntheticDirectory();
+        final List<FFFile> children = new ArrayList<>();
+
+        for (String name : directory.getChildrenNames())
+            children.add(directory.getChild(name));
+
+        for (String flag : new String[] { FLAG_COMPLETION, FLAG_DUE }) {
+            long bestLegacy = Long.MAX_VALUE, bestKeyed = Long.MAX_VALUE;
+            List<FFFile> legacy = null, keyed = null;
+
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                legacy = new ArrayList<>(children);
+                legacy.sort(legacyComparator(flag));
+                bestLegacy = Math.min(bestLegacy, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                keyed = FFFile.sort(children, flag);
+                bestKeyed = Math.min(bestKeyed, System.nanoTime() - start);
+            }
+
+            // ties may fall in a different order, but the keys must not
+            for (int i = 0; i < legacy.size(); i++)
+                if (legacyKey(legacy.get(i), flag) != legacyKey(keyed.get(i), flag))
+                    throw new IllegalStateException("keyed sort differs at " + i);
+
+            System.out.println("Sorted " + DECKS + " decks by " + flag + ": comparator reading summaries " +
+                    (bestLegacy / 1_000_000) + " ms, keys read once " + (bestKeyed / 1_000_000) + " ms");
+        }
+    }
+
+    private static FFDirectory syntheticDirectory() {
+        final FFDirectory root = FFDirectory.createRoot();
+        final Pot[] pots = Pot.values();
+        final Random random = new Random(7);
+
+        for (int d = 0; d < DECKS; d++) {
+            final String name = "deck " + d;
+            final FFDeckFile deckFile = root.addDeckR(name);
+            final Map<String, FlashCard> flashCards = new HashMap<>();
+
+            for (int i = 0; i < CARDS_PER_DECK; i++) {
+                final String clue = "clue " + i;
+                flashCards.put(clue, FlashCard.fromParsedDeckFile(clue, "answer " + i,
+                        true, LocalDate.now().plusDays(random.nextInt(20) - 10),
+                        pots[random.nextInt(pots.length)], 0, 0, 0, FlashCard.generateNewCode()));
+            }
+
+            deckFile.setAssociatedDeck(Deck.fromImportedFlashCards(name, deckFile.getFilepath(), flashCards));
+        }
+
+        return root;
+    }
+
+    private static int legacyKey(final FFFile file, final String flag) {
+        final FFDeckFile deckFile = (FFDeckFile) file;
+
+        return flag.equals(FLAG_COMPLETION)
+                ? deckFile.getSummary().getPercentageScore()
+                : deckFile.getSummary().getNumDueFlashCards();
+    }
+
+    // the original comparator, which summarizes both decks in every comparison, kept as a baseline
+    private static Comparator<FFFile> legacyComparator(final String flag) {
+        final Comparator<FFDeckFile> deckComparator = flag.equals(FLAG_COMPLETION)
+                ? Comparator.comparingInt(deck -> -deck.getSummary().getPercentageScore())
+                : Comparator.comparingInt(deck -> -deck.getSummary().getNumDueFlashCards());
+
+        return (o1, o2) -> {
+            if (o1 instanceof FFDirectory dir1 && o2 instanceof FFDirectory dir2)
+                return dir1.getName().compareTo(dir2.getName());
+            else if (o1 instanceof FFDeckFile deck1 && o2 instanceof FFDeckFile deck2)
+                return deckComparator.compare(deck1, deck2);
+            else if (o1 instanceof FFDeckFile && o2 instanceof FFDirectory)
+                return 1;
+            else if (o2 instanceof FFDeckFile && o1 instanceof FFDirectory)
+                return -1;
+
+            return 0;
+        };
+    }
+}
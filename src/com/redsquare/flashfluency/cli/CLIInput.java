@@ -1,5 +1,7 @@
 package com.redsquare.flashfluency.cli;
 
+import com.redsquare.flashfluency.logic.SessionClock;
+
 import java.util.Scanner;
 
 public class CLIInput {
@@ -13,6 +15,7 @@ public class CLIInput {
 
     public static void readCommand() {
         String toParse = readInput();
+        SessionClock.tick();
         CommandParser.parse(toParse);
     }
 
@@ -4,7 +4,10 @@ import com.redsquare.flashfluency.logic.*;
 import com.redsquare.flashfluency.system.FFDeckFile;
 import com.redsquare.flashfluency.system.FFDirectory;
 import com.redsquare.flashfluency.system.FFFile;
+import com.redsquare.flashfluency.system.SearchIndex;
 import com.redsquare.flashfluency.system.Settings;
+import com.redsquare.flashfluency.system.SubtreeStatistics;
+import com.redsquare.flashfluency.system.TagIndex;
 import com.redsquare.flashfluency.system.exceptions.FlashFluencyLogicException;
 
 import java.time.LocalDate;
@@ -150,9 +153,9 @@ public class CLIOutput {
                 },
                 x -> {
                     LocalDate d = x.getDue();
-                    String dateColor = d.isBefore(LocalDate.now())
+                    String dateColor = d.isBefore(SessionClock.todayDate())
                             ? ANSI_RED_BOLD
-                            : (d.isEqual(LocalDate.now())
+                            : (d.isEqual(SessionClock.todayDate())
                                     ? ANSI_YELLOW_BOLD
                                     : ANSI_GREEN_BOLD);
                     String date = d.getDayOfMonth() + "-" +
@@ -274,12 +277,9 @@ public class CLIOutput {
         for (int i = 0; i < tags.length; i++)
             tags[i] = tags[i].trim();
 
-        final Set<FFDeckFile> hasMatchingTags = new HashSet<>();
-        directory.getDecksWithMatchingTags(hasMatchingTags, tags);
-
-        final List<FFDeckFile> decksWithMatchingTags = new ArrayList<>(hasMatchingTags);
+        final List<FFDeckFile> decksWithMatchingTags = TagIndex.getDecksWithTags(directory, tags);
         decksWithMatchingTags.sort(Comparator.comparing(
-                x -> relativePath(directory, x) + deckInLine(x.getAssociatedDeck())
+                x -> relativePath(directory, x) + deckFileInLine(x)
         ));
 
         StringBuilder sb = new StringBuilder();
@@ -307,6 +307,36 @@ public class CLIOutput {
         write(sb.toString(), false);
     }
 
+    public static void writeSearchResults(final String query) {
+        final int MAX_RESULTS = 50;
+        final List<SearchIndex.Result> results = SearchIndex.search(query);
+        final FFDirectory root = Settings.getRootDirectory();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(borderLine());
+        sb.append(DIRECTORY_COLOR).append("Flash cards matching ")
+                .append(highlightName(query, DIRECTORY_COLOR)).append(":").append(NEW_LINE);
+        sb.append(borderLine());
+
+        for (SearchIndex.Result result : results.subList(0, Math.min(MAX_RESULTS, results.size())))
+            sb.append(ANSI_RESET).append(" -> ")
+                    .append(relativePath(root, result.deckFile()))
+                    .append(DECK_COLOR).append(result.deckFile().getName())
+                    .append(ANSI_RESET).append(" [ ")
+                    .append(highlightName(result.code(), ANSI_RESET))
+                    .append(" ] ").append(result.clue())
+                    .append(" : ").append(result.answer()).append(NEW_LINE);
+
+        if (results.size() > MAX_RESULTS)
+            sb.append(ANSI_RESET).append("... and ").append(results.size() - MAX_RESULTS)
+                    .append(" more").append(NEW_LINE);
+
+        sb.append(borderLine());
+        sb.append(ANSI_RESET).append(results.size()).append(" flash cards found.").append(NEW_LINE);
+
+        write(sb.toString(), false);
+    }
+
     public static void writeDirectoryTree(final FFDirectory directory) {
         StringBuilder sb = new StringBuilder();
         sb.append(borderLine());
@@ -337,9 +367,11 @@ public class CLIOutput {
         }
 
         if (node instanceof FFDeckFile deckFile)
-            sb.append(deckInLine(deckFile.getAssociatedDeck())).append(NEW_LINE);
+            sb.append(deckFile.hasSummary()
+                    ? deckFileInLine(deckFile)
+                    : DECK_COLOR + deckFile.getName() + ANSI_RESET).append(NEW_LINE);
         else if (node instanceof FFDirectory directory) {
-            sb.append(DIRECTORY_COLOR).append(directory.getName()).append(NEW_LINE);
+            sb.append(directoryInLine(directory)).append(NEW_LINE);
 
             List<String> children = new ArrayList<>(directory.getChildrenNames());
             children.sort(Comparator.comparing(x -> x));
@@ -361,7 +393,7 @@ public class CLIOutput {
         directory.getDecksWithDue(hasDue);
 
         final List<FFDeckFile> decksWithDueCards = new ArrayList<>(hasDue);
-        decksWithDueCards.sort(Comparator.comparingInt(o -> -o.getAssociatedDeck().getNumDueFlashCards()));
+        decksWithDueCards.sort(Comparator.comparingInt(o -> -o.getSummary().getNumDueFlashCards()));
 
         StringBuilder sb = new StringBuilder();
         sb.append(borderLine());
@@ -373,6 +405,12 @@ public class CLIOutput {
 
         formatDeckRelativePaths(decksWithDueCards, directory, sb);
 
+        sb.append(borderLine());
+        sb.append(ANSI_RESET).append("In total, ").append(ANSI_PURPLE_BOLD)
+                .append(directory.getStatistics().getNumDueFlashCards()).append(ANSI_RESET)
+                .append(" flash cards are due across ").append(decksWithDueCards.size())
+                .append(" decks.").append(NEW_LINE);
+
         sb.append(borderLine());
 
         write(sb.toString(), false);
@@ -384,7 +422,7 @@ public class CLIOutput {
         deckFileList.forEach(x ->
                 sb.append(ANSI_RESET).append(" -> ")
                         .append(relativePath(directory, x))
-                        .append(deckInLine(x.getAssociatedDeck()))
+                        .append(deckFileInLine(x))
                         .append(NEW_LINE));
     }
 
@@ -407,14 +445,12 @@ public class CLIOutput {
     }
 
     public static void writeDirectoryList(FFDirectory directory, final String sortingFlag) {
-        Comparator<FFFile> sorter = FFFile.getComparator(sortingFlag);
-
         List<FFFile> children = new ArrayList<>();
         for (String s : directory.getChildrenNames()) {
             FFFile directoryChild = directory.getChild(s);
             children.add(directoryChild);
         }
-        children.sort(sorter);
+        children = FFFile.sort(children, sortingFlag);
 
         StringBuilder sb = new StringBuilder();
         sb.append(borderLine());
@@ -426,10 +462,10 @@ public class CLIOutput {
         children.forEach(x -> {
             sb.append(ANSI_RESET).append(" -> ");
 
-            if (x instanceof FFDirectory)
-                sb.append(DIRECTORY_COLOR).append(x.getName());
+            if (x instanceof FFDirectory childDirectory)
+                sb.append(directoryInLine(childDirectory));
             else
-                sb.append(deckInLine(((FFDeckFile) x).getAssociatedDeck()));
+                sb.append(deckFileInLine((FFDeckFile) x));
 
             sb.append(NEW_LINE);
         });
@@ -439,17 +475,32 @@ public class CLIOutput {
         write(sb.toString(), false);
     }
 
-    private static String deckInLine(final Deck deck) {
-        return DECK_COLOR + deck.getName() +
+    private static String deckFileInLine(final FFDeckFile deckFile) {
+        final DeckSummary summary = deckFile.getSummary();
+
+        return DECK_COLOR + deckFile.getName() +
                 ANSI_RESET + " [ " +
-                ANSI_PURPLE_BOLD + deck.getNumDueFlashCards() +
-                ANSI_RESET + " due, " + deckPercentageScore(deck) +
+                ANSI_PURPLE_BOLD + summary.getNumDueFlashCards() +
+                ANSI_RESET + " due, " + percentageScore(summary.getPercentageScore()) +
+                "% memorized ]";
+    }
+
+    private static String directoryInLine(final FFDirectory directory) {
+        final SubtreeStatistics statistics = directory.getStatistics();
+
+        return DIRECTORY_COLOR + directory.getName() +
+                ANSI_RESET + " [ " + statistics.getNumOfDecks() + " decks, " +
+                statistics.getNumOfFlashCards() + " cards, " +
+                ANSI_PURPLE_BOLD + statistics.getNumDueFlashCards() +
+                ANSI_RESET + " due, " + percentageScore(statistics.getPercentageScore()) +
                 "% memorized ]";
     }
 
     private static String deckPercentageScore(final Deck deck) {
-        final int percentage = deck.getPercentageScore();
+        return percentageScore(deck.getPercentageScore());
+    }
 
+    private static String percentageScore(final int percentage) {
         return getPercentageScoreColor(percentage) + percentage + ANSI_RESET;
     }
 
@@ -656,8 +707,32 @@ public class CLIOutput {
         writeFlashCardAction("Updated", flashCard, true);
     }
 
-    public static void writeImportedFlashCard(final FlashCard flashCard) {
-        writeFlashCardAction("Imported", flashCard, false);
+    public static void writeImportProgress(final int records) {
+        write(DECK_COLOR + "Read " + highlightName(String.valueOf(records), DECK_COLOR) +
+                " records..." + NEW_LINE, false);
+    }
+
+    public static void writeImportSummary(
+            final Deck deck, final int records, final int imported, final int duplicates,
+            final int malformed, final long elapsedNanos, final boolean isDryRun
+    ) {
+        final double seconds = elapsedNanos / 1e9;
+        final long recordsPerSecond = seconds > 0 ? Math.round(records / seconds) : records;
+
+        String s = borderLine() + DECK_COLOR + (isDryRun ? "Dry run: would import " : "Imported ") +
+                highlightName(String.valueOf(imported), DECK_COLOR) + " flash card" +
+                (imported == 1 ? "" : "s") + " into deck " +
+                highlightName(deck.getName(), DECK_COLOR) + NEW_LINE +
+                DECK_COLOR + "Skipped " + highlightName(String.valueOf(duplicates), DECK_COLOR) +
+                " duplicate clue" + (duplicates == 1 ? "" : "s") + " and " +
+                highlightName(String.valueOf(malformed), DECK_COLOR) + " malformed record" +
+                (malformed == 1 ? "" : "s") + NEW_LINE +
+                DECK_COLOR + "Read " + highlightName(String.valueOf(records), DECK_COLOR) +
+                " records in " + highlightName(String.format("%.2f", seconds), DECK_COLOR) +
+                " seconds (" + highlightName(String.valueOf(recordsPerSecond), DECK_COLOR) +
+                " records per second)" + NEW_LINE + borderLine();
+
+        write(s, false);
     }
 
     public static void writeRemovedFlashCard(final FlashCard flashCard) {
@@ -684,6 +759,35 @@ public class CLIOutput {
         write(s, false);
     }
 
+    public static void writeConvertedDeck(
+            final String name, final String format, final String filepath
+    ) {
+        String s = borderLine() + DECK_COLOR + "Converted deck " +
+                highlightName(name, DECK_COLOR) + " to the " +
+                highlightName(format, DECK_COLOR) + " format in file " +
+                highlightName(filepath, DECK_COLOR) + NEW_LINE + borderLine();
+
+        write(s, false);
+    }
+
+    public static void writeReloadedDeck(final String name, final String filepath) {
+        String s = borderLine() + DECK_COLOR + "Reloaded deck " +
+                highlightName(name, DECK_COLOR) + " after its file " +
+                highlightName(filepath, DECK_COLOR) + " was changed" + NEW_LINE + borderLine();
+
+        write(s, false);
+    }
+
+    public static void writeSavedDecksSummary(final int saved, final int skipped) {
+        String s = borderLine() + DECK_COLOR + "Saved " +
+                highlightName(String.valueOf(saved), DECK_COLOR) + " modified deck" +
+                (saved == 1 ? "" : "s") + "; skipped " +
+                highlightName(String.valueOf(skipped), DECK_COLOR) + " unchanged deck" +
+                (skipped == 1 ? "" : "s") + NEW_LINE + borderLine();
+
+        write(s, false);
+    }
+
     public static void writeClearedDeck(final Deck deck) {
         String s = borderLine() + DECK_COLOR + "Cleared flash cards in deck " +
                 highlightName(deck.getName(), DECK_COLOR) +
@@ -710,6 +814,22 @@ public class CLIOutput {
         write(s, false);
     }
 
+    public static void writeImportedFolderSummary(
+            final String folderpath, final int decks, final int flashCards,
+            final int skipped, final long elapsedNanos
+    ) {
+        String s = borderLine() + DIRECTORY_COLOR + "Imported " +
+                highlightName(String.valueOf(decks), DIRECTORY_COLOR) + " deck" +
+                (decks == 1 ? "" : "s") + " with " +
+                highlightName(String.valueOf(flashCards), DIRECTORY_COLOR) + " flash card" +
+                (flashCards == 1 ? "" : "s") + " from " + highlightName(folderpath, DIRECTORY_COLOR) +
+                " in " + highlightName(String.format("%.2f", elapsedNanos / 1e9), DIRECTORY_COLOR) +
+                " seconds; skipped " + highlightName(String.valueOf(skipped), DIRECTORY_COLOR) +
+                " file" + (skipped == 1 ? "" : "s") + NEW_LINE + borderLine();
+
+        write(s, false);
+    }
+
     public static void writeRetiredLesson() {
         String s = borderLine() + DECK_COLOR + "Retired from lesson.";
 
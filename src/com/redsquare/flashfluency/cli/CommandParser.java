@@ -3,22 +3,26 @@ package com.redsquare.flashfluency.cli;
 import com.redsquare.flashfluency.logic.Deck;
 import com.redsquare.flashfluency.logic.FlashCard;
 import com.redsquare.flashfluency.logic.Lesson;
+import com.redsquare.flashfluency.system.DeckFileFormat;
 import com.redsquare.flashfluency.system.FFDeckFile;
 import com.redsquare.flashfluency.system.FFDirectory;
 import com.redsquare.flashfluency.system.FFFile;
+import com.redsquare.flashfluency.system.FolderImporter;
 import com.redsquare.flashfluency.system.Settings;
 import com.redsquare.flashfluency.system.exceptions.FlashFluencyLogicException;
 import com.redsquare.flashfluency.system.exceptions.InvalidDeckFileFormatException;
 import com.redsquare.flashfluency.system.exceptions.InvalidDirectoryFormatException;
 import com.redsquare.flashfluency.system.exceptions.InvalidFormatException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 public class CommandParser {
-    private static final String ARG_SEPARATOR = " ";
+    private static final String ARG_SEPARATOR = " ", FLAG_DRY_RUN = "-n";
 
     private static final String CMD_LEARN = "learn"; // DONE
     private static final String CMD_TEST = "test"; // DONE
@@ -44,14 +48,16 @@ public class CommandParser {
     private static final String CMD_DELETE = "delete"; // DONE
     private static final String CMD_TREE = "tree"; // DONE
     private static final String CMD_PRUNE = "prune"; // DONE
+    private static final String CMD_CONVERT = "convert";
+    private static final String CMD_SEARCH = "search";
 
     private static final String PARENT_DIR = "..", ROOT_DIR = "",
             COMPLETE_FOLLOWING = ">>", COMPLETE_PRECEDING = "<<", APPEND = "&&", ALL = "all",
             SUBSET = "subset" + ARG_SEPARATOR, TAG = "tag" + ARG_SEPARATOR,
             FLASH_CARD = "flashcard", DIR_SEPARATOR = "/",
             TAG_SEPARATOR = ",", OPTIONAL_OPEN = "(", OPTIONAL_CLOSE = ")",
-            REPEAT = "*", VAL = "[X]", NAME = "[name]", ID_CODE = "[id_code]",
-            SETTING_ID = "[setting_id]", FILEPATH = "[filepath]",
+            REPEAT = "*", VAL = "[X]", NAME = "[name]", TERM = "[term]", ID_CODE = "[id_code]",
+            SETTING_ID = "[setting_id]", FILEPATH = "[filepath]", FORMAT = "[binary|text]",
             DECK = "deck" + ARG_SEPARATOR, DIRECTORY = "dir" + ARG_SEPARATOR;
 
     public static void parse(String command) {
@@ -124,6 +130,25 @@ public class CommandParser {
             parseImportCommand(getRemaining(command, CMD_IMPORT + ARG_SEPARATOR));
         else if (command.startsWith(CMD_SET + ARG_SEPARATOR))
             parseSetCommand(getRemaining(command, CMD_SET + ARG_SEPARATOR));
+        else if (command.startsWith(CMD_CONVERT + ARG_SEPARATOR))
+            parseConvertCommand(getRemaining(command, CMD_CONVERT + ARG_SEPARATOR));
+        else if (command.startsWith(CMD_SEARCH + ARG_SEPARATOR))
+            CLIOutput.writeSearchResults(getRemaining(command, CMD_SEARCH + ARG_SEPARATOR));
+    }
+
+    private static void parseConvertCommand(final String remaining) {
+        final DeckFileFormat format = DeckFileFormat.fromArgument(remaining);
+
+        if (format == null) {
+            ExceptionMessenger.deliver(FlashFluencyLogicException.invalidArgumentName());
+            return;
+        }
+
+        final List<FFDeckFile> decks = new ArrayList<>();
+        ContextManager.getContext().getDecks(decks);
+
+        for (FFDeckFile deck : decks)
+            deck.convertTo(format);
     }
 
     private static void parseHastagsCommand(final String remaining) {
@@ -270,8 +295,19 @@ public class CommandParser {
         }
     }
 
-    private static void parseImportCommand(String filepath) {
-        parseDeckCommand(Deck::importCards, filepath);
+    private static void parseImportCommand(final String remaining) {
+        final boolean isDryRun = remaining.startsWith(FLAG_DRY_RUN + ARG_SEPARATOR);
+        final String filepath = isDryRun
+                ? getRemaining(remaining, FLAG_DRY_RUN + ARG_SEPARATOR) : remaining;
+
+        // from a directory, every word list in a folder becomes a deck
+        if (ContextManager.getContext() instanceof FFDirectory) {
+            if (isDryRun)
+                ExceptionMessenger.deliver(FlashFluencyLogicException.invalidArgumentName());
+            else
+                parseDirectoryCommand(FolderImporter::importFolder, filepath);
+        } else
+            parseDeckCommand((deck, x) -> deck.importCards(x, isDryRun), filepath);
     }
 
     private static void parseAddCommand(String remaining) {
@@ -287,7 +323,7 @@ public class CommandParser {
             FlashCard flashCard = FlashCard.createNew(clue, answer);
 
             try {
-                getDeck().addFlashCard(flashCard, false);
+                getDeck().addFlashCard(flashCard);
             } catch (FlashFluencyLogicException e) {
                 ExceptionMessenger.deliver(e);
             }
@@ -320,7 +356,7 @@ public class CommandParser {
         }
     }
 
-    private static boolean isValidName(final String name) {
+    public static boolean isValidName(final String name) {
         if (name.equals(""))
             return false;
 
@@ -390,7 +426,13 @@ public class CommandParser {
     }
 
     private static void parseGotoCommand(String remaining) {
-        setContextAsLocation(remaining);
+        // a lone name can also be a deck anywhere in the library
+        if (!remaining.contains(DIR_SEPARATOR) && !remaining.equals(PARENT_DIR) &&
+                !remaining.equals(ROOT_DIR) &&
+                !remaining.endsWith(COMPLETE_FOLLOWING) && !remaining.startsWith(COMPLETE_PRECEDING))
+            ContextManager.setContextToChildOrDeckNamed(remaining);
+        else
+            setContextAsLocation(remaining);
     }
 
     private static void setContextAsLocation(final String path) {
@@ -417,12 +459,14 @@ public class CommandParser {
                 CMD_ADD + ARG_SEPARATOR + FLASH_CARD,
                 CMD_ADD + ARG_SEPARATOR + TAG + NAME,
                 CMD_CLEAR,
+                CMD_CONVERT + ARG_SEPARATOR + FORMAT,
                 CMD_DELETE,
                 CMD_EDIT,
                 CMD_EDIT + ARG_SEPARATOR + FLASH_CARD + ARG_SEPARATOR + ID_CODE,
                 CMD_GOTO + ARG_SEPARATOR + PARENT_DIR,
                 CMD_HELP,
                 CMD_IMPORT + ARG_SEPARATOR + FILEPATH,
+                CMD_IMPORT + ARG_SEPARATOR + FLAG_DRY_RUN + ARG_SEPARATOR + FILEPATH,
                 CMD_LEARN,
                 CMD_MOVETO + ARG_SEPARATOR + NAME + OPTIONAL_OPEN +
                         DIR_SEPARATOR + NAME + OPTIONAL_CLOSE + REPEAT,
@@ -431,6 +475,8 @@ public class CommandParser {
                 CMD_REMOVE + ARG_SEPARATOR + TAG + NAME,
                 CMD_RESET,
                 CMD_SAVE,
+                CMD_SEARCH + ARG_SEPARATOR + TERM + OPTIONAL_OPEN +
+                        ARG_SEPARATOR + TERM + OPTIONAL_CLOSE + REPEAT,
                 CMD_SET + ARG_SEPARATOR + SETTING_ID + ARG_SEPARATOR + VAL,
                 CMD_SETTINGS,
                 CMD_TEST + ARG_SEPARATOR + ALL,
@@ -441,6 +487,7 @@ public class CommandParser {
                 "Adds a new flash card to the deck and prompts the user to pass in a clue and answer", // add flashcard
                 "Adds tag " + NAME + " to the current deck", // add tag [name]
                 "Clears all of the flash cards from the deck, including their memorization data", // clear
+                "Rewrites the deck file in the binary or plain text deck format", // convert [binary|text]
                 "Deletes the deck - THIS CANNOT BE UNDONE", // delete
                 "Prompts the user for a new description for the deck", // edit
                 "Edits the contents of the flash card with ID code " + ID_CODE +
@@ -448,6 +495,8 @@ public class CommandParser {
                 "Changes the context to the deck's parent directory", // goto ..
                 "Displays the valid commands at this context scope", // help
                 "Imports flash cards from a CSV file or plain text file " + FILEPATH, // import [filepath]
+                "Reads " + FILEPATH + " as an import would without adding any flash cards, " +
+                        "and reports how many would be added and how quickly it was read", // import -n [filepath]
                 "Runs a spaced repetition lesson in the current deck" +
                         " and updates the memorization status of tested flash cards", // learn
                 "Moves the current deck to the destination specified by the path " +
@@ -457,6 +506,8 @@ public class CommandParser {
                 "Removes the tag " + NAME + " from the deck", // remove tag [name]
                 "Resets all of memorization data for every flash card in the deck", // reset
                 "Saves the deck to the associated deck file", // save
+                "Finds the flash cards in every deck with a word in the clue or answer starting with each " +
+                        TERM + ", ignoring accents, and shows their decks and ID codes", // search [term]( [term])*
                 "Sets setting " + SETTING_ID + " to the value " + VAL, // set [setting_id] [X]
                 "Lists all the program settings and their current values", // settings
                 "Tests all flash cards once with a score at the end;" +
@@ -467,6 +518,7 @@ public class CommandParser {
         };
         final String[] DIR_COMMANDS = {
                 CMD_BURROW,
+                CMD_CONVERT + ARG_SEPARATOR + FORMAT,
                 CMD_CREATE + ARG_SEPARATOR + DECK + NAME,
                 CMD_CREATE + ARG_SEPARATOR + DIRECTORY + NAME,
                 CMD_DELETE,
@@ -477,11 +529,14 @@ public class CommandParser {
                 CMD_HASTAGS + ARG_SEPARATOR + NAME + OPTIONAL_OPEN +
                         TAG_SEPARATOR + NAME + OPTIONAL_CLOSE + REPEAT,
                 CMD_HELP,
+                CMD_IMPORT + ARG_SEPARATOR + FILEPATH,
                 CMD_LIST,
                 CMD_MOVETO + ARG_SEPARATOR + NAME + OPTIONAL_OPEN +
                         DIR_SEPARATOR + NAME + OPTIONAL_CLOSE + REPEAT,
                 CMD_PRUNE,
                 CMD_QUIT,
+                CMD_SEARCH + ARG_SEPARATOR + TERM + OPTIONAL_OPEN +
+                        ARG_SEPARATOR + TERM + OPTIONAL_CLOSE + REPEAT,
                 CMD_SET + ARG_SEPARATOR + SETTING_ID + ARG_SEPARATOR + VAL,
                 CMD_SETTINGS,
                 CMD_TREE
@@ -489,6 +544,8 @@ public class CommandParser {
         final String[] DIR_EXPLANATIONS = {
                 "\"Burrows\" deeper within the current directory path until a fork " +
                         "or terminus is reached", // burrow
+                "Rewrites every deck file accessible from this directory " +
+                        "in the binary or plain text deck format", // convert [binary|text]
                 "Creates a flash card deck file " + NAME + " in the current directory", // create deck [name]
                 "Creates a child directory " + NAME + " in the current directory", // create dir [name]
                 "Deletes the directory and its subdirectories and decks - THIS CANNOT BE UNDONE", // delete
@@ -496,15 +553,21 @@ public class CommandParser {
                         "with flash cards that are due", // due
                 "Changes the context to the parent directory", // goto ..
                 "Goes to a specified directory or deck file using a " +
-                        "sub-path specified from the current directory", // goto [name](/[name])*
+                        "sub-path specified from the current directory; a single " + NAME +
+                        " that is not in the current directory goes to the deck of that name " +
+                        "anywhere in the library", // goto [name](/[name])*
                 "Finds all of the decks accessible via this context " +
                         "with ALL of the tags in the search", // hastags [name](,[name])*
                 "Displays the valid commands at this context scope", // help
+                "Creates a deck in the current directory for every CSV or plain text file in the folder " +
+                        FILEPATH + ", with a directory for every folder inside it", // import [filepath]
                 "Lists the contents of the current directory", // list
                 "Moves the current directory and its subdirectories and decks " +
                         "to the destination specified by the path (relative or full)", // moveto [name](/[name])*
                 "Deletes all empty directories accessible from this directory", // prune
                 "Saves and quits the program", // quit
+                "Finds the flash cards in every deck with a word in the clue or answer starting with each " +
+                        TERM + ", ignoring accents, and shows their decks and ID codes", // search [term]( [term])*
                 "Sets setting " + SETTING_ID + " to the value " + VAL, // set [setting_id] [X]
                 "Lists all the program settings and their current values", // settings
                 "Displays the content sub-tree accessible from the current directory" // tree
@@ -1,5 +1,8 @@
 package com.redsquare.flashfluency.cli;
 
+import com.redsquare.flashfluency.system.BackgroundWriter;
+import com.redsquare.flashfluency.system.DeckNameIndex;
+import com.redsquare.flashfluency.system.DeckWatcher;
 import com.redsquare.flashfluency.system.FFDeckFile;
 import com.redsquare.flashfluency.system.FFDirectory;
 import com.redsquare.flashfluency.system.FFFile;
@@ -10,6 +13,7 @@ import com.redsquare.flashfluency.system.exceptions.InvalidDirectoryFormatExcept
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 public class ContextManager {
@@ -18,6 +22,7 @@ public class ContextManager {
 
     private static final String VERSION = "0.2";
     private static final int EXIT_CODE_EXPECTED = 0;
+    private static final String DIR_SEPARATOR = "/";
 
     public static void main(String[] args) {
         startUp();
@@ -38,6 +43,8 @@ public class ContextManager {
 
     private static void commandLoop() {
         while (!inLesson) {
+            BackgroundWriter.reportFailures();
+            DeckWatcher.applyChanges(Settings.getRootDirectory());
             CLIOutput.writeUsernamePrompt();
             CLIInput.readCommand();
         }
@@ -100,16 +107,21 @@ public class ContextManager {
 
             FFDirectory d = (FFDirectory) context;
 
-            final List<String> matchingChildren = new ArrayList<>();
+            // the trie counts matches without listing them, so a miss costs no more than the segment
+            final int matches = isPrefix
+                    ? d.countChildrenNamesStartingWith(segment)
+                    : d.countChildrenNamesEndingWith(segment);
 
-            for (String childName : d.getChildrenNames())
-                if (isPrefix ? childName.startsWith(segment) : childName.endsWith(segment))
-                    matchingChildren.add(childName);
-
-            if (matchingChildren.isEmpty())
+            if (matches == 0)
                 throw FlashFluencyLogicException.fileWithSegmentTypeDoesNotExistInDir(isPrefix, segment);
-            else if (matchingChildren.size() > 1)
-                throw FlashFluencyLogicException.multipleMatchesForSegmentType(isPrefix, segment);
+
+            final List<String> matchingChildren = isPrefix
+                    ? d.getChildrenNamesStartingWith(segment)
+                    : d.getChildrenNamesEndingWith(segment);
+
+            if (matches > 1)
+                throw FlashFluencyLogicException.multipleMatchesForSegmentType(
+                        isPrefix, segment, matchingChildren);
 
             context = d.getChild(matchingChildren.get(0));
         } catch (FlashFluencyLogicException e) {
@@ -117,6 +129,42 @@ public class ContextManager {
         }
     }
 
+    // a deck that is not a child of the context is looked for across the whole library
+    public static void setContextToChildOrDeckNamed(final String name) {
+        if (context instanceof FFDirectory d && d.hasChild(name)) {
+            context = d.getChild(name);
+            return;
+        }
+
+        try {
+            final List<FFDeckFile> named = DeckNameIndex.getDecksNamed(name);
+
+            if (named.isEmpty())
+                throw FlashFluencyLogicException.fileDoesNotExistInDirOrLibrary(name);
+            else if (named.size() > 1) {
+                final List<String> paths = new ArrayList<>();
+                named.forEach(x -> paths.add(libraryPath(x)));
+                paths.sort(Comparator.naturalOrder());
+
+                throw FlashFluencyLogicException.multipleDecksWithName(name, paths);
+            }
+
+            context = named.get(0);
+        } catch (FlashFluencyLogicException e) {
+            ExceptionMessenger.deliver(e);
+        }
+    }
+
+    // the full path of the file, as goto would take it from anywhere
+    private static String libraryPath(final FFFile file) {
+        final StringBuilder sb = new StringBuilder();
+
+        for (FFFile f = file; f.getParent() != null; f = f.getParent())
+            sb.insert(0, DIR_SEPARATOR + f.getName());
+
+        return sb.toString();
+    }
+
     public static void setContextManually(FFFile file) {
         context = file;
     }
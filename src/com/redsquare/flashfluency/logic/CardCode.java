@@ -0,0 +1,61 @@
+package com.redsquare.flashfluency.logic;
+
+// flash card codes are eight characters from 0-9 and A-Z, which pack into a long in base 36
+public class CardCode {
+    public static final int LENGTH = 8;
+    public static final long INVALID = -1L;
+
+    private static final int RADIX = 36, DIGITS = 10;
+    private static final double NUM_PROB = 0.3;
+
+    // case-insensitive and ignores surrounding whitespace, without allocating
+    public static long pack(final String code) {
+        int start = 0, end = code.length();
+
+        while (start < end && Character.isWhitespace(code.charAt(start)))
+            start++;
+        while (end > start && Character.isWhitespace(code.charAt(end - 1)))
+            end--;
+
+        if (end - start != LENGTH)
+            return INVALID;
+
+        long packed = 0L;
+
+        for (int i = start; i < end; i++) {
+            final int digit = Character.digit(code.charAt(i), RADIX);
+
+            if (digit == -1)
+                return INVALID;
+
+            packed = packed * RADIX + digit;
+        }
+
+        return packed;
+    }
+
+    public static String unpack(long packed) {
+        final char[] code = new char[LENGTH];
+
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            code[i] = Character.toUpperCase(Character.forDigit((int) (packed % RADIX), RADIX));
+            packed /= RADIX;
+        }
+
+        return new String(code);
+    }
+
+    public static long random() {
+        long packed = 0L;
+
+        for (int i = 0; i < LENGTH; i++) {
+            final int digit = MathHelper.p(NUM_PROB)
+                    ? MathHelper.boundedRandom(DIGITS)
+                    : DIGITS + MathHelper.boundedRandom(RADIX - DIGITS);
+
+            packed = packed * RADIX + digit;
+        }
+
+        return packed;
+    }
+}
@@ -0,0 +1,56 @@
+package com.redsquare.flashfluency.logic;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// where a deck keeps its flash cards and the indices over them; the deck tells its storage of
+// every change to a card that belongs to it, so that each kind of storage can keep up
+interface CardStorage {
+    int size();
+
+    boolean containsClue(String clue);
+
+    boolean containsCode(long packedCode);
+
+    FlashCard get(String clue);
+
+    FlashCard getByCode(long packedCode);
+
+    Set<String> getClues();
+
+    Collection<FlashCard> getFlashCards();
+
+    // the cards by position, for picking them at random
+    List<FlashCard> getFlashCardList();
+
+    // the card's code is already unique within the deck
+    void add(FlashCard flashCard);
+
+    void remove(FlashCard flashCard);
+
+    // the deck has attached the cards it was made from, which nothing else holds on to
+    void finishLoading();
+
+    // the cards leave the deck, and the storage is left empty
+    void clear();
+
+    void stateChanged(FlashCard flashCard);
+
+    void dueChanged(FlashCard flashCard, LocalDate previousDue);
+
+    void clueChanged(String oldClue, FlashCard flashCard);
+
+    void contentChanged(FlashCard flashCard);
+
+    int countDueBy(long epochDay);
+
+    List<FlashCard> getDueBy(long epochDay);
+
+    SortedMap<Long, Integer> getDueHistogram();
+
+    // the cards by clue as they are now, for writing them out straight away
+    Map<String, FlashCard> asMap();
+
+    // a copy of the cards by clue that later changes to the deck do not reach
+    Map<String, FlashCard> snapshot();
+}
@@ -0,0 +1,111 @@
+package com.redsquare.flashfluency.logic;
+
+import java.util.Arrays;
+
+// the flash cards of a deck by packed code; open addressing over primitive keys, so that
+// looking a card up neither boxes the code nor allocates
+class CodeIndex {
+    private static final long EMPTY = CardCode.INVALID;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys;
+    private FlashCard[] values;
+    private int size;
+
+    CodeIndex() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    FlashCard get(final long code) {
+        for (int slot = slot(code); keys[slot] != EMPTY; slot = next(slot))
+            if (keys[slot] == code)
+                return values[slot];
+
+        return null;
+    }
+
+    boolean contains(final long code) {
+        return get(code) != null;
+    }
+
+    void put(final long code, final FlashCard flashCard) {
+        // kept at most half full so that probe sequences stay short
+        if (2 * (size + 1) > keys.length)
+            resize(2 * keys.length);
+
+        int slot = slot(code);
+
+        while (keys[slot] != EMPTY && keys[slot] != code)
+            slot = next(slot);
+
+        if (keys[slot] == EMPTY)
+            size++;
+
+        keys[slot] = code;
+        values[slot] = flashCard;
+    }
+
+    // only removes the entry if it still belongs to this card
+    void remove(final long code, final FlashCard flashCard) {
+        int slot = slot(code);
+
+        while (keys[slot] != EMPTY && keys[slot] != code)
+            slot = next(slot);
+
+        if (keys[slot] == EMPTY || values[slot] != flashCard)
+            return;
+
+        // entries further along the probe sequence are shifted back into the gap
+        int gap = slot;
+
+        for (slot = next(slot); keys[slot] != EMPTY; slot = next(slot)) {
+            final int home = slot(keys[slot]);
+            final boolean reachableFromHome = gap <= slot
+                    ? gap < home && home <= slot
+                    : gap < home || home <= slot;
+
+            if (!reachableFromHome) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void resize(final int capacity) {
+        final long[] oldKeys = keys;
+        final FlashCard[] oldValues = values;
+
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != EMPTY)
+                put(oldKeys[i], oldValues[i]);
+    }
+
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        values = new FlashCard[capacity];
+        size = 0;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private int slot(final long code) {
+        final long mixed = code * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & (keys.length - 1);
+    }
+
+    private int next(final int slot) {
+        return (slot + 1) & (keys.length - 1);
+    }
+}
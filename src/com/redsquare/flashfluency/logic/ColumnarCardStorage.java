@@ -0,0 +1,317 @@
+package com.redsquare.flashfluency.logic;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.IntFunction;
+
+// the cards of a large deck held in a ColumnarCardStore; a card is read out as a FlashCard view
+// when it is asked for and its changes are written back through the deck, and for as long as
+// something holds on to a view the same view is handed out again, so that a card in a lesson
+// keeps its lesson counter and stays the same object to the deck and its listener
+class ColumnarCardStorage implements CardStorage {
+    private final Deck deck;
+    private ColumnarCardStore store;
+    // epoch day -> number of flash cards due on that day
+    private final NavigableMap<Long, Integer> dueHistogram;
+
+    // views by packed code; a view no longer held anywhere else is collected and dropped
+    private final Map<Long, ViewReference> views;
+    private final ReferenceQueue<FlashCard> collectedViews;
+
+    private static class ViewReference extends WeakReference<FlashCard> {
+        private final long packedCode;
+
+        private ViewReference(final FlashCard view, final ReferenceQueue<FlashCard> queue) {
+            super(view, queue);
+            this.packedCode = view.getPackedCode();
+        }
+    }
+
+    ColumnarCardStorage(final Deck deck, final int capacity) {
+        this.deck = deck;
+        this.store = ColumnarCardStore.withCapacity(capacity);
+        this.dueHistogram = new TreeMap<>();
+        this.views = new HashMap<>();
+        this.collectedViews = new ReferenceQueue<>();
+    }
+
+    // takes over the cards of another storage, whose objects serve as the first views
+    static ColumnarCardStorage of(final Deck deck, final Collection<FlashCard> flashCards) {
+        final ColumnarCardStorage storage = new ColumnarCardStorage(deck, flashCards.size());
+        flashCards.forEach(storage::add);
+        storage.store.trim();
+        return storage;
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public boolean containsClue(final String clue) {
+        return store.indexOf(clue) >= 0;
+    }
+
+    @Override
+    public boolean containsCode(final long packedCode) {
+        return store.indexOfCode(packedCode) >= 0;
+    }
+
+    @Override
+    public FlashCard get(final String clue) {
+        final int i = store.indexOf(clue);
+        return i < 0 ? null : view(i);
+    }
+
+    @Override
+    public FlashCard getByCode(final long packedCode) {
+        final int i = store.indexOfCode(packedCode);
+        return i < 0 ? null : view(i);
+    }
+
+    @Override
+    public Set<String> getClues() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return positions(store::getClue);
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                return o instanceof String clue && containsClue(clue);
+            }
+
+            @Override
+            public int size() {
+                return store.size();
+            }
+        };
+    }
+
+    @Override
+    public Collection<FlashCard> getFlashCards() {
+        return getFlashCardList();
+    }
+
+    @Override
+    public List<FlashCard> getFlashCardList() {
+        return new AbstractList<>() {
+            @Override
+            public FlashCard get(final int i) {
+                return view(i);
+            }
+
+            @Override
+            public int size() {
+                return store.size();
+            }
+        };
+    }
+
+    @Override
+    public void add(final FlashCard flashCard) {
+        store.add(flashCard);
+        countDue(flashCard.getDue().toEpochDay(), 1);
+        cache(flashCard);
+    }
+
+    @Override
+    public void remove(final FlashCard flashCard) {
+        final int i = store.indexOfCode(flashCard.getPackedCode());
+
+        countDue(store.getDueEpochDay(i), -1);
+        store.removeAt(i);
+        views.remove(flashCard.getPackedCode());
+    }
+
+    @Override
+    public void finishLoading() {
+        // cards that only the parser held need not stay the views of their cards
+        views.clear();
+        store.trim();
+    }
+
+    @Override
+    public void clear() {
+        expungeCollectedViews();
+
+        for (ViewReference reference : views.values()) {
+            final FlashCard view = reference.get();
+
+            if (view != null)
+                view.setDeck(null);
+        }
+
+        views.clear();
+        dueHistogram.clear();
+        store = ColumnarCardStore.withCapacity(0);
+    }
+
+    @Override
+    public void stateChanged(final FlashCard flashCard) {
+        store.update(store.indexOfCode(flashCard.getPackedCode()), flashCard);
+    }
+
+    @Override
+    public void dueChanged(final FlashCard flashCard, final LocalDate previousDue) {
+        countDue(previousDue.toEpochDay(), -1);
+        countDue(flashCard.getDue().toEpochDay(), 1);
+    }
+
+    @Override
+    public void clueChanged(final String oldClue, final FlashCard flashCard) {
+        // written back with the rest of the content
+    }
+
+    @Override
+    public void contentChanged(final FlashCard flashCard) {
+        final int i = store.indexOfCode(flashCard.getPackedCode()),
+                holder = store.indexOf(flashCard.getClue());
+
+        // a clue that now collides with another card keeps its old key, as before
+        final String clue = holder >= 0 && holder != i ? store.getClue(i) : flashCard.getClue();
+        store.setText(i, clue, flashCard.getAnswer());
+    }
+
+    @Override
+    public int countDueBy(final long epochDay) {
+        int count = 0;
+
+        for (int bucket : dueHistogram.headMap(epochDay, true).values())
+            count += bucket;
+
+        return count;
+    }
+
+    @Override
+    public List<FlashCard> getDueBy(final long epochDay) {
+        final int[] positions = new int[countDueBy(epochDay)];
+        int found = 0;
+
+        for (int i = 0; i < store.size() && found < positions.length; i++)
+            if (store.getDueEpochDay(i) <= epochDay)
+                positions[found++] = i;
+
+        // only the cards picked from the list are read out
+        return new AbstractList<>() {
+            @Override
+            public FlashCard get(final int index) {
+                return view(positions[index]);
+            }
+
+            @Override
+            public int size() {
+                return positions.length;
+            }
+        };
+    }
+
+    @Override
+    public SortedMap<Long, Integer> getDueHistogram() {
+        return new TreeMap<>(dueHistogram);
+    }
+
+    @Override
+    public Map<String, FlashCard> asMap() {
+        return asMap(store);
+    }
+
+    @Override
+    public Map<String, FlashCard> snapshot() {
+        return asMap(store.copy());
+    }
+
+    // the cards of the store by clue, read out afresh each time rather than as the deck's views
+    private static Map<String, FlashCard> asMap(final ColumnarCardStore store) {
+        return new AbstractMap<>() {
+            @Override
+            public Set<Entry<String, FlashCard>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, FlashCard>> iterator() {
+                        return positions(store, i -> {
+                            final FlashCard flashCard = store.view(i);
+                            return new SimpleImmutableEntry<>(flashCard.getClue(), flashCard);
+                        });
+                    }
+
+                    @Override
+                    public int size() {
+                        return store.size();
+                    }
+                };
+            }
+
+            @Override
+            public FlashCard get(final Object key) {
+                final int i = key instanceof String clue ? store.indexOf(clue) : -1;
+                return i < 0 ? null : store.view(i);
+            }
+
+            @Override
+            public boolean containsKey(final Object key) {
+                return key instanceof String clue && store.indexOf(clue) >= 0;
+            }
+        };
+    }
+
+    private FlashCard view(final int i) {
+        expungeCollectedViews();
+
+        final ViewReference reference = views.get(store.getCode(i));
+        final FlashCard cached = reference == null ? null : reference.get();
+
+        if (cached != null)
+            return cached;
+
+        final FlashCard view = store.view(i);
+        view.setDeck(deck);
+        cache(view);
+
+        return view;
+    }
+
+    private void cache(final FlashCard view) {
+        views.put(view.getPackedCode(), new ViewReference(view, collectedViews));
+    }
+
+    private void expungeCollectedViews() {
+        ViewReference collected;
+
+        while ((collected = (ViewReference) collectedViews.poll()) != null)
+            views.remove(collected.packedCode, collected);
+    }
+
+    private void countDue(final long epochDay, final int change) {
+        dueHistogram.merge(epochDay, change, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private <T> Iterator<T> positions(final IntFunction<T> read) {
+        return positions(store, read);
+    }
+
+    private static <T> Iterator<T> positions(
+            final ColumnarCardStore store, final IntFunction<T> read
+    ) {
+        return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < store.size();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                return read.apply(next++);
+            }
+        };
+    }
+}
@@ -0,0 +1,416 @@
+package com.redsquare.flashfluency.logic;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+// flash cards held as parallel primitive columns instead of one object per card, for decks
+// too large to keep as FlashCard objects; cards are read out as detached FlashCard views
+// and written back with update
+public class ColumnarCardStore {
+    private static final int INITIAL_CAPACITY = 16, EMPTY = -1;
+    private static final byte INTRODUCED = 1;
+    private static final Pot[] POTS = Pot.values();
+
+    private int size;
+
+    // one entry per card
+    private long[] codes;
+    private int[] due;
+    private byte[] pots, potCounters, flags;
+    private int[] correctInTests, attemptedInTests;
+    private int[] textStart, clueLength, answerLength, clueHash;
+
+    // the UTF-8 text of every clue followed by its answer; removed cards leave garbage behind
+    private byte[] arena;
+    private int arenaSize, arenaGarbage;
+
+    // card positions by clue and by code, open addressing; both tables are the same size
+    private int[] clueTable, codeTable;
+
+    public ColumnarCardStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private ColumnarCardStore(final int capacity) {
+        allocate(Math.max(INITIAL_CAPACITY, capacity));
+        arena = new byte[codes.length * 16];
+        clueTable = newTable(Integer.highestOneBit(2 * codes.length - 1) << 1);
+        codeTable = newTable(clueTable.length);
+    }
+
+    public static ColumnarCardStore withCapacity(final int capacity) {
+        return new ColumnarCardStore(capacity);
+    }
+
+    public static ColumnarCardStore of(final Collection<FlashCard> flashCards) {
+        final ColumnarCardStore store = new ColumnarCardStore(flashCards.size());
+        flashCards.forEach(store::add);
+        store.trim();
+        return store;
+    }
+
+    // the arena grows by doubling, which can leave up to half of it unused
+    public void trim() {
+        arena = Arrays.copyOf(arena, Math.max(INITIAL_CAPACITY, arenaSize));
+    }
+
+    // a store of its own, holding the cards as they are now
+    public ColumnarCardStore copy() {
+        final ColumnarCardStore copy = new ColumnarCardStore(size);
+
+        copy.size = size;
+        System.arraycopy(codes, 0, copy.codes, 0, size);
+        System.arraycopy(due, 0, copy.due, 0, size);
+        System.arraycopy(pots, 0, copy.pots, 0, size);
+        System.arraycopy(potCounters, 0, copy.potCounters, 0, size);
+        System.arraycopy(flags, 0, copy.flags, 0, size);
+        System.arraycopy(correctInTests, 0, copy.correctInTests, 0, size);
+        System.arraycopy(attemptedInTests, 0, copy.attemptedInTests, 0, size);
+        System.arraycopy(textStart, 0, copy.textStart, 0, size);
+        System.arraycopy(clueLength, 0, copy.clueLength, 0, size);
+        System.arraycopy(answerLength, 0, copy.answerLength, 0, size);
+        System.arraycopy(clueHash, 0, copy.clueHash, 0, size);
+
+        copy.arena = Arrays.copyOf(arena, arenaSize);
+        copy.arenaSize = arenaSize;
+        copy.arenaGarbage = arenaGarbage;
+        copy.clueTable = clueTable.clone();
+        copy.codeTable = codeTable.clone();
+
+        return copy;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // false if a card with the same clue is already stored
+    public boolean add(final FlashCard flashCard) {
+        final byte[] clue = flashCard.getClue().getBytes(StandardCharsets.UTF_8),
+                answer = flashCard.getAnswer().getBytes(StandardCharsets.UTF_8);
+        final int hash = Arrays.hashCode(clue);
+
+        if (find(clue, hash) != EMPTY)
+            return false;
+
+        if (size == codes.length)
+            grow();
+
+        if (2 * (size + 1) > clueTable.length)
+            rehash(2 * clueTable.length);
+
+        final int i = size++;
+        textStart[i] = append(clue, answer);
+        clueLength[i] = clue.length;
+        answerLength[i] = answer.length;
+        clueHash[i] = hash;
+        codes[i] = flashCard.getPackedCode() == CardCode.INVALID ? CardCode.random() : flashCard.getPackedCode();
+
+        write(i, flashCard);
+        link(i);
+
+        return true;
+    }
+
+    public int indexOf(final String clue) {
+        final byte[] bytes = clue.getBytes(StandardCharsets.UTF_8);
+        return find(bytes, Arrays.hashCode(bytes));
+    }
+
+    public int indexOfCode(final long packedCode) {
+        for (int slot = codeSlot(packedCode); codeTable[slot] != EMPTY; slot = next(slot))
+            if (codes[codeTable[slot]] == packedCode)
+                return codeTable[slot];
+
+        return EMPTY;
+    }
+
+    public boolean remove(final String clue) {
+        final int i = indexOf(clue);
+
+        if (i == EMPTY)
+            return false;
+
+        removeAt(i);
+        return true;
+    }
+
+    public void removeAt(final int i) {
+        unlink(i);
+        arenaGarbage += clueLength[i] + answerLength[i];
+
+        // the last card moves into the gap so that the columns stay dense
+        final int last = --size;
+
+        if (i != last) {
+            unlink(last);
+            move(last, i);
+            link(i);
+        }
+
+        collectGarbage();
+    }
+
+    // the caller makes sure that the clue is not taken by another card
+    public void setText(final int i, final String clue, final String answer) {
+        final byte[] clueBytes = clue.getBytes(StandardCharsets.UTF_8),
+                answerBytes = answer.getBytes(StandardCharsets.UTF_8);
+
+        unlink(i);
+        arenaGarbage += clueLength[i] + answerLength[i];
+
+        textStart[i] = append(clueBytes, answerBytes);
+        clueLength[i] = clueBytes.length;
+        answerLength[i] = answerBytes.length;
+        clueHash[i] = Arrays.hashCode(clueBytes);
+        link(i);
+
+        collectGarbage();
+    }
+
+    public long getCode(final int i) {
+        return codes[i];
+    }
+
+    public String getClue(final int i) {
+        return new String(arena, textStart[i], clueLength[i], StandardCharsets.UTF_8);
+    }
+
+    public String getAnswer(final int i) {
+        return new String(arena, textStart[i] + clueLength[i], answerLength[i], StandardCharsets.UTF_8);
+    }
+
+    public int getDueEpochDay(final int i) {
+        return due[i];
+    }
+
+    public Pot getPot(final int i) {
+        return POTS[pots[i]];
+    }
+
+    // a detached copy; changes to it reach the store only through update
+    public FlashCard view(final int i) {
+        return FlashCard.fromParsedDeckFile(getClue(i), getAnswer(i),
+                (flags[i] & INTRODUCED) != 0, LocalDate.ofEpochDay(due[i]),
+                POTS[pots[i]], potCounters[i], correctInTests[i], attemptedInTests[i],
+                CardCode.unpack(codes[i]));
+    }
+
+    // stores the learning state of the card; its code, clue and answer are left as they are
+    public void update(final int i, final FlashCard flashCard) {
+        write(i, flashCard);
+    }
+
+    public int countDueBy(final int epochDay) {
+        int count = 0;
+
+        for (int i = 0; i < size; i++)
+            if (due[i] <= epochDay)
+                count++;
+
+        return count;
+    }
+
+    public int countInPot(final Pot pot) {
+        final byte ordinal = (byte) pot.ordinal();
+        int count = 0;
+
+        for (int i = 0; i < size; i++)
+            if (pots[i] == ordinal)
+                count++;
+
+        return count;
+    }
+
+    public Map<String, FlashCard> toFlashCards() {
+        final Map<String, FlashCard> flashCards = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            final FlashCard flashCard = view(i);
+            flashCards.put(flashCard.getClue(), flashCard);
+        }
+
+        return flashCards;
+    }
+
+    private void write(final int i, final FlashCard flashCard) {
+        due[i] = (int) flashCard.getDue().toEpochDay();
+        pots[i] = (byte) flashCard.getPot().ordinal();
+        potCounters[i] = (byte) flashCard.getPotCounter();
+        flags[i] = flashCard.isIntroduced() ? INTRODUCED : 0;
+        correctInTests[i] = flashCard.getCorrectInTests();
+        attemptedInTests[i] = flashCard.getAttemptedInTests();
+    }
+
+    private void move(final int from, final int to) {
+        codes[to] = codes[from];
+        due[to] = due[from];
+        pots[to] = pots[from];
+        potCounters[to] = potCounters[from];
+        flags[to] = flags[from];
+        correctInTests[to] = correctInTests[from];
+        attemptedInTests[to] = attemptedInTests[from];
+        textStart[to] = textStart[from];
+        clueLength[to] = clueLength[from];
+        answerLength[to] = answerLength[from];
+        clueHash[to] = clueHash[from];
+    }
+
+    private int append(final byte[] clue, final byte[] answer) {
+        final int needed = clue.length + answer.length;
+
+        if (arenaSize + needed > arena.length)
+            arena = Arrays.copyOf(arena, Math.max(2 * arena.length, arenaSize + needed));
+
+        final int start = arenaSize;
+        System.arraycopy(clue, 0, arena, start, clue.length);
+        System.arraycopy(answer, 0, arena, start + clue.length, answer.length);
+        arenaSize += needed;
+
+        return start;
+    }
+
+    private void collectGarbage() {
+        if (arenaGarbage > arenaSize / 2)
+            compactArena();
+    }
+
+    private void compactArena() {
+        final byte[] compacted = new byte[Math.max(INITIAL_CAPACITY, arenaSize - arenaGarbage)];
+        int position = 0;
+
+        for (int i = 0; i < size; i++) {
+            final int length = clueLength[i] + answerLength[i];
+            System.arraycopy(arena, textStart[i], compacted, position, length);
+            textStart[i] = position;
+            position += length;
+        }
+
+        arena = compacted;
+        arenaSize = position;
+        arenaGarbage = 0;
+    }
+
+    private int find(final byte[] clue, final int hash) {
+        for (int slot = slot(hash); clueTable[slot] != EMPTY; slot = next(slot)) {
+            final int i = clueTable[slot];
+
+            if (clueHash[i] == hash && Arrays.equals(arena, textStart[i], textStart[i] + clueLength[i],
+                    clue, 0, clue.length))
+                return i;
+        }
+
+        return EMPTY;
+    }
+
+    private void link(final int i) {
+        insert(clueTable, i, this::clueSlot);
+        insert(codeTable, i, this::codeSlot);
+    }
+
+    private void unlink(final int i) {
+        unlink(clueTable, i, this::clueSlot);
+        unlink(codeTable, i, this::codeSlot);
+    }
+
+    private static void insert(final int[] table, final int i, final IntUnaryOperator home) {
+        int slot = home.applyAsInt(i);
+
+        while (table[slot] != EMPTY)
+            slot = (slot + 1) & (table.length - 1);
+
+        table[slot] = i;
+    }
+
+    // takes card i out of the table, shifting later entries back into the gap
+    private static void unlink(final int[] table, final int i, final IntUnaryOperator home) {
+        final int mask = table.length - 1;
+        int slot = home.applyAsInt(i);
+
+        while (table[slot] != i)
+            slot = (slot + 1) & mask;
+
+        int gap = slot;
+
+        for (slot = (slot + 1) & mask; table[slot] != EMPTY; slot = (slot + 1) & mask) {
+            final int entryHome = home.applyAsInt(table[slot]);
+            final boolean reachableFromHome = gap <= slot
+                    ? gap < entryHome && entryHome <= slot
+                    : gap < entryHome || entryHome <= slot;
+
+            if (!reachableFromHome) {
+                table[gap] = table[slot];
+                gap = slot;
+            }
+        }
+
+        table[gap] = EMPTY;
+    }
+
+    private void rehash(final int capacity) {
+        clueTable = newTable(capacity);
+        codeTable = newTable(capacity);
+
+        for (int i = 0; i < size; i++)
+            link(i);
+    }
+
+    private int clueSlot(final int i) {
+        return slot(clueHash[i]);
+    }
+
+    private int codeSlot(final int i) {
+        return codeSlot(codes[i]);
+    }
+
+    private int codeSlot(final long packedCode) {
+        return slot(Long.hashCode(packedCode * 0x9E3779B97F4A7C15L));
+    }
+
+    private int slot(final int hash) {
+        final int mixed = hash * 0x9E3779B9;
+        return (mixed ^ (mixed >>> 16)) & (clueTable.length - 1);
+    }
+
+    private int next(final int slot) {
+        return (slot + 1) & (clueTable.length - 1);
+    }
+
+    private static int[] newTable(final int capacity) {
+        final int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private void allocate(final int capacity) {
+        codes = new long[capacity];
+        due = new int[capacity];
+        pots = new byte[capacity];
+        potCounters = new byte[capacity];
+        flags = new byte[capacity];
+        correctInTests = new int[capacity];
+        attemptedInTests = new int[capacity];
+        textStart = new int[capacity];
+        clueLength = new int[capacity];
+        answerLength = new int[capacity];
+        clueHash = new int[capacity];
+    }
+
+    private void grow() {
+        final int capacity = 2 * codes.length;
+
+        codes = Arrays.copyOf(codes, capacity);
+        due = Arrays.copyOf(due, capacity);
+        pots = Arrays.copyOf(pots, capacity);
+        potCounters = Arrays.copyOf(potCounters, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        correctInTests = Arrays.copyOf(correctInTests, capacity);
+        attemptedInTests = Arrays.copyOf(attemptedInTests, capacity);
+        textStart = Arrays.copyOf(textStart, capacity);
+        clueLength = Arrays.copyOf(clueLength, capacity);
+        answerLength = Arrays.copyOf(answerLength, capacity);
+        clueHash = Arrays.copyOf(clueHash, capacity);
+    }
+}
@@ -2,76 +2,233 @@ package com.redsquare.flashfluency.logic;
 
 import com.redsquare.flashfluency.cli.CLIOutput;
 import com.redsquare.flashfluency.cli.ExceptionMessenger;
+import com.redsquare.flashfluency.system.BackgroundWriter;
+import com.redsquare.flashfluency.system.CardFileReader;
+import com.redsquare.flashfluency.system.DeckFileFormat;
 import com.redsquare.flashfluency.system.DeckFileParser;
-import com.redsquare.flashfluency.system.FileIOHelper;
+import com.redsquare.flashfluency.system.DeckJournal;
+import com.redsquare.flashfluency.system.FileWriteBatch;
 import com.redsquare.flashfluency.system.Settings;
 import com.redsquare.flashfluency.system.exceptions.FFErrorMessages;
 import com.redsquare.flashfluency.system.exceptions.FlashFluencyLogicException;
 
 import java.io.*;
+import java.time.LocalDate;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
-import java.util.function.Function;
+import java.util.random.RandomGenerator;
 
 public class Deck {
     public static final String TAG_IRREVERSIBLE = "irreversible", TAG_STRICT = "strict";
 
     private final String name;
     private String filepath;
+    // the format the deck is saved in, which stays with it when its file moves
+    private DeckFileFormat format;
 
     private String description;
     private final Set<String> tags;
-    private final Map<String, FlashCard> flashCards;
-
-    private Deck(String name, String filepath, String description,
+    private CardStorage storage;
+
+    // the deck only needs to be written if it has changed since it was last saved
+    private long version, savedVersion;
+    // learning state changes since the last save, which the review journal can hold
+    private final Set<FlashCard> changedFlashCards;
+    private boolean structurallyModified;
+    // entries in the review journal that the deck file does not yet hold
+    private int journaledEntries;
+
+    // kept up to date as cards join, leave and change pots, rather than counted when asked for
+    private final int[] potHistogram;
+    private int scoreTotal;
+    // told of changes to the counters; null while nothing outside the deck keeps totals of them
+    private DeckListener listener;
+
+    private Deck(String name, String filepath, DeckFileFormat format, String description,
                  Set<String> tags, Map<String, FlashCard> flashCards) {
         this.name = name;
         this.filepath = filepath;
+        this.format = format;
 
         this.description = description;
         this.tags = tags;
-        this.flashCards = flashCards;
+        this.storage = isLargeEnoughForColumns(flashCards.size()) ?
+                new ColumnarCardStorage(this, flashCards.size()) : new ObjectCardStorage();
+        this.changedFlashCards = new HashSet<>();
+        this.potHistogram = new int[Pot.values().length];
+
+        flashCards.values().forEach(this::attach);
+        storage.finishLoading();
+    }
+
+    private static boolean isLargeEnoughForColumns(final int numFlashCards) {
+        final int threshold = Settings.getColumnarStorageThreshold();
+        return threshold > 0 && numFlashCards >= threshold;
+    }
+
+    // a deck that grows past the threshold moves its cards into columns; it never moves back
+    private void fitStorage() {
+        if (storage instanceof ObjectCardStorage && isLargeEnoughForColumns(storage.size()))
+            storage = ColumnarCardStorage.of(this, storage.getFlashCards());
     }
 
     public static Deck fromParsedDeckFile(String name, String filepath, String description,
                                           Set<String> tags, Map<String, FlashCard> flashCards) {
-        return new Deck(name, filepath, description, tags, flashCards);
+        return fromParsedDeckFile(name, filepath, description, tags, flashCards,
+                DeckFileFormat.TEXT, 0, false);
+    }
+
+    // an outdated file does not hold everything the deck needs, such as card codes that stay
+    // the same from one parse to the next, so it is rewritten in full the first time it is saved
+    public static Deck fromParsedDeckFile(String name, String filepath, String description,
+                                          Set<String> tags, Map<String, FlashCard> flashCards,
+                                          DeckFileFormat format, int journaledEntries,
+                                          boolean isOutdated) {
+        Deck deck = new Deck(name, filepath, format, description, tags, flashCards);
+        deck.journaledEntries = journaledEntries;
+
+        if (isOutdated)
+            deck.markModified();
+
+        return deck;
+    }
+
+    public static Deck fromImportedFlashCards(String name, String filepath,
+                                              Map<String, FlashCard> flashCards) {
+        Deck deck = new Deck(name, filepath, DeckFileFormat.TEXT, "", new HashSet<>(), flashCards);
+        deck.markModified();
+        return deck;
     }
 
     public static Deck createNew(String name, String filepath) {
-        return new Deck(name, filepath, "", new HashSet<>(), new HashMap<>());
+        Deck deck = new Deck(name, filepath, DeckFileFormat.TEXT, "", new HashSet<>(), new HashMap<>());
+        deck.markModified();
+        return deck;
+    }
+
+    private void markModified() {
+        version++;
+        structurallyModified = true;
+    }
+
+    void flashCardModified(final FlashCard flashCard) {
+        version++;
+        changedFlashCards.add(flashCard);
+        storage.stateChanged(flashCard);
+    }
+
+    public void setListener(final DeckListener listener) {
+        this.listener = listener;
+    }
+
+    void flashCardDueChanged(final FlashCard flashCard, final LocalDate previousDue) {
+        storage.dueChanged(flashCard, previousDue);
+
+        if (listener != null)
+            listener.flashCardDueChanged(previousDue, flashCard.getDue());
+    }
+
+    void flashCardPotChanged(final Pot previousPot, final Pot pot) {
+        countInPot(previousPot, -1);
+        countInPot(pot, 1);
+
+        if (listener != null)
+            listener.flashCardPotChanged(previousPot, pot);
+    }
+
+    // a card belongs to the deck for as long as it is in the deck's storage
+    private void attach(final FlashCard flashCard) {
+        // codes are unique within a deck; a card whose code is taken gets a fresh one
+        if (flashCard.getPackedCode() == CardCode.INVALID || storage.containsCode(flashCard.getPackedCode())) {
+            flashCard.setCode(generateUniqueCode());
+            markModified();
+        }
+
+        flashCard.setDeck(this);
+        storage.add(flashCard);
+        countInPot(flashCard.getPot(), 1);
+
+        if (listener != null)
+            listener.flashCardAttached(flashCard);
+    }
+
+    private void detach(final FlashCard flashCard) {
+        flashCard.setDeck(null);
+        storage.remove(flashCard);
+        countInPot(flashCard.getPot(), -1);
+
+        if (listener != null)
+            listener.flashCardDetached(flashCard);
+    }
+
+    private long generateUniqueCode() {
+        long code;
+
+        do {
+            code = CardCode.random();
+        } while (storage.containsCode(code));
+
+        return code;
+    }
+
+    private void countInPot(final Pot pot, final int change) {
+        potHistogram[pot.ordinal()] += change;
+        scoreTotal += change * pot.getScore();
+    }
+
+    // checked when assertions are enabled; recounts everything the deck keeps track of
+    private boolean isConsistent() {
+        final DeckSummary recounted = DeckSummary.of(tags, storage.getFlashCards());
+
+        return recounted.getScoreTotal() == scoreTotal &&
+                Arrays.equals(recounted.getPotHistogram(), potHistogram) &&
+                recounted.getDueHistogram().equals(storage.getDueHistogram());
+    }
+
+    void flashCardContentModified(final FlashCard flashCard) {
+        markModified();
+        storage.contentChanged(flashCard);
+
+        if (listener != null)
+            listener.flashCardContentChanged(flashCard);
+    }
+
+    void flashCardClueChanged(final String oldClue, final FlashCard flashCard) {
+        storage.clueChanged(oldClue, flashCard);
+    }
+
+    public boolean isModified() {
+        return version != savedVersion;
+    }
+
+    public long getVersion() {
+        return version;
     }
 
     public void updateFilepath(final String filepath) {
         // delete the old file
-        FileIOHelper.deleteFileFootprintFromSystem(this.filepath);
+        BackgroundWriter.deleteDeck(this.filepath);
 
         // set correct filepath
         this.filepath = filepath;
 
-        try {
-            // save to new location
-            saveToFile();
-        } catch (IOException e) {
-            ExceptionMessenger.deliver(
-                    FFErrorMessages.MESSAGE_FAILED_WRITE_TO_DECK_FILE,
-                    false, FFErrorMessages.CONSEQUENCE_DECK_DATA_NOT_SAVED);
-        }
+        // save to new location
+        saveInBackground();
     }
 
-    public void addFlashCard(final FlashCard flashCard, final boolean isImported) {
+    public void addFlashCard(final FlashCard flashCard) {
         try {
             final String clue = flashCard.getClue();
 
-            if (flashCards.containsKey(clue))
+            if (storage.containsClue(clue))
                 throw FlashFluencyLogicException
                         .attemptedToAddFlashCardWithDuplicateClue(clue);
 
-            flashCards.put(flashCard.getClue(), flashCard);
+            attach(flashCard);
+            fitStorage();
+            markModified();
 
-            if (isImported)
-                CLIOutput.writeImportedFlashCard(flashCard);
-            else
-                CLIOutput.writeAddedFlashCard(flashCard);
+            CLIOutput.writeAddedFlashCard(flashCard);
         } catch (FlashFluencyLogicException e) {
             ExceptionMessenger.deliver(e);
         }
@@ -79,11 +236,12 @@ public class Deck {
 
     public void removeFlashCard(final FlashCard flashCard) {
         try {
-            if (!flashCards.containsValue(flashCard))
+            if (storage.getByCode(flashCard.getPackedCode()) != flashCard)
                 throw FlashFluencyLogicException
                         .attemptedToRemoveFlashCardNotInDeck();
 
-            flashCards.remove(flashCard.getClue());
+            detach(flashCard);
+            markModified();
             CLIOutput.writeRemovedFlashCard(flashCard);
         } catch (FlashFluencyLogicException e) {
             ExceptionMessenger.deliver(e);
@@ -96,6 +254,11 @@ public class Deck {
                 throw FlashFluencyLogicException.attemptedToAddExistingTagToDeck(tag);
 
             tags.add(tag);
+            markModified();
+
+            if (listener != null)
+                listener.tagAdded(tag);
+
             CLIOutput.writeAddedTag(tag);
         } catch (FlashFluencyLogicException e) {
             ExceptionMessenger.deliver(e);
@@ -108,6 +271,11 @@ public class Deck {
                 throw FlashFluencyLogicException.attemptedToRemoveTagNotInDeck(tag);
 
             tags.remove(tag);
+            markModified();
+
+            if (listener != null)
+                listener.tagRemoved(tag);
+
             CLIOutput.writeRemovedTag(tag);
         } catch (FlashFluencyLogicException e) {
             ExceptionMessenger.deliver(e);
@@ -116,155 +284,263 @@ public class Deck {
 
     public void setDescription(String description) {
         this.description = description;
+        markModified();
     }
 
-    public void saveToFile() throws IOException {
-        DeckFileParser.saveToFile(filepath, description, tags, flashCards);
-    }
+    public void saveToFile(final FileWriteBatch batch) throws IOException {
+        final long saving = version;
+        final String saveFilepath = filepath;
 
-    private Set<FlashCard> filterFlashCards(Function<FlashCard, Boolean> f) {
-        Set<FlashCard> compliant = new HashSet<>();
+        DeckFileParser.saveToFile(saveFilepath, description, tags, storage.asMap(), format, batch);
 
-        flashCards.keySet().forEach(x -> {
-            FlashCard flashCard = flashCards.get(x);
-            if (f.apply(flashCard))
-                compliant.add(flashCard);
+        batch.afterCommit(() -> {
+            DeckJournal.discard(saveFilepath);
+            markSaved(saving);
+            journaledEntries = 0;
         });
+    }
 
-        return compliant;
+    // the deck is written in this format from now on
+    public void saveInBackground(final DeckFileFormat format) {
+        this.format = format;
+        saveInBackground();
     }
 
-    private Set<FlashCard> subset(final List<FlashCard> input, final int LIMIT) {
-        Set<FlashCard> output = new HashSet<>();
+    // the background writer gets a copy, so the deck can keep changing while it is written
+    public void saveInBackground() {
+        final long saving = version;
+        final DeckFileFormat saveFormat = format;
+        final String saveFilepath = filepath, saveDescription = description;
+        final Set<String> saveTags = new HashSet<>(tags);
+        final Map<String, FlashCard> snapshot = storage.snapshot();
+
+        BackgroundWriter.replace(saveFilepath, () -> {
+            DeckFileParser.saveToFile(saveFilepath, saveDescription, saveTags, snapshot, saveFormat);
+            DeckJournal.discard(saveFilepath);
+        }, this::failedToSave);
+
+        markSaved(saving);
+        journaledEntries = 0;
+    }
 
-        for (int i = 0; i < input.size() && i < LIMIT; i++) {
-            output.add(input.get(i));
+    // appends only the cards whose learning state changed, unless the deck itself changed
+    public void saveReviewedCards() {
+        if (structurallyModified) {
+            saveInBackground();
+            return;
         }
 
-        return output;
+        final long saving = version;
+        final String saveFilepath = filepath;
+        final List<String> entries = changedFlashCards.stream().map(DeckJournal::encode).toList();
+        final DeckSummary summary = summarize();
+
+        BackgroundWriter.append(saveFilepath,
+                () -> DeckJournal.append(saveFilepath, entries, summary), this::failedToSave);
+
+        markSaved(saving);
+        journaledEntries += entries.size();
+
+        // queued behind the append, so the journal can be folded in as a whole
+        if (DeckJournal.needsCompaction(journaledEntries))
+            saveInBackground();
+    }
+
+    private void failedToSave() {
+        ExceptionMessenger.deliver(FFErrorMessages.MESSAGE_FAILED_WRITE_TO_DECK_FILE,
+                false, FFErrorMessages.CONSEQUENCE_DECK_DATA_NOT_SAVED);
+
+        // written in full the next time the deck is saved
+        markModified();
     }
 
-    public Set<FlashCard> getCardsForTest(final int NUM_Qs) {
-        List<FlashCard> flashCardList = new ArrayList<>(filterFlashCards(x -> true));
-        Collections.shuffle(flashCardList);
-        return subset(flashCardList, NUM_Qs);
+    private void markSaved(final long saving) {
+        savedVersion = saving;
+        changedFlashCards.clear();
+        structurallyModified = false;
     }
 
-    public Set<FlashCard> getCardsThatAreDue() {
-        List<FlashCard> toReview = new ArrayList<>(filterFlashCards(FlashCard::isDue));
-        Collections.shuffle(toReview);
-        return subset(toReview, Settings.getLessonIntroLimit());
+    public List<FlashCard> getCardsForTest(final int NUM_Qs, final RandomGenerator random) {
+        return MathHelper.sample(storage.getFlashCardList(), NUM_Qs, random);
     }
 
-    public Set<FlashCard> getCardsToIntroduce(final Set<FlashCard> alreadyInLesson) {
-        List<FlashCard> notIntroduced = new ArrayList<>(
-                filterFlashCards(x -> !(x.isIntroduced() || alreadyInLesson.contains(x)))
-        );
-        Collections.shuffle(notIntroduced);
-        return subset(notIntroduced, Settings.getLessonIntroLimit() - alreadyInLesson.size());
+    public List<FlashCard> getCardsThatAreDue(final RandomGenerator random) {
+        return MathHelper.sample(storage.getDueBy(SessionClock.today()),
+                Settings.getLessonIntroLimit(), random);
     }
 
-    public int getPercentageScore() {
-        int total = 0;
+    public List<FlashCard> getCardsToIntroduce(
+            final Set<FlashCard> alreadyInLesson, final RandomGenerator random
+    ) {
+        return MathHelper.sample(storage.getFlashCardList(), x -> !(x.isIntroduced() || alreadyInLesson.contains(x)),
+                Settings.getLessonIntroLimit() - alreadyInLesson.size(), random);
+    }
 
-        for (String clue : getFlashCardClues()) {
-            FlashCard fc = getFlashCard(clue);
-            total += fc.getPot().getScore();
-        }
+    public DeckSummary summarize() {
+        assert isConsistent() : "the counters of deck " + name + " disagree with its flash cards";
 
-        return (int)((total * 100) / (float)(getNumOfFlashCards() * Pot.MAX_SCORE));
+        return DeckSummary.fromCounters(getNumOfFlashCards(), scoreTotal, potHistogram.clone(),
+                tags, storage.getDueHistogram());
+    }
+
+    public int getPercentageScore() {
+        assert isConsistent() : "the counters of deck " + name + " disagree with its flash cards";
+
+        return (int)((scoreTotal * 100) / (float)(getNumOfFlashCards() * Pot.MAX_SCORE));
     }
 
     public int getNumOfFlashCards() {
-        return flashCards.keySet().size();
+        return storage.size();
     }
 
     public int getNumFlashCardsInPot(final Pot pot) {
-        return filterFlashCards(x -> x.getPot() == pot).size();
+        return potHistogram[pot.ordinal()];
     }
 
     public int getNumDueFlashCards() {
-        return filterFlashCards(FlashCard::isDue).size();
+        return storage.countDueBy(SessionClock.today());
     }
 
     public String getName() {
         return name;
     }
 
+    public DeckFileFormat getFileFormat() {
+        return format;
+    }
+
     public String getDescription() {
         return description;
     }
 
+    public Collection<FlashCard> getFlashCards() {
+        return Collections.unmodifiableCollection(storage.getFlashCards());
+    }
+
     public Set<String> getTags() {
         return tags;
     }
 
     public Set<String> getFlashCardClues() {
-        return flashCards.keySet();
+        return storage.getClues();
     }
 
     public Optional<FlashCard> getFlashCardFromCode(final String code) {
-        for (final String flashCardClue : getFlashCardClues()) {
-            final FlashCard flashCard = flashCards.get(flashCardClue);
+        final long packed = CardCode.pack(code);
 
-            if (flashCard.getCode().toUpperCase().equals(code.toUpperCase().trim()))
-                return Optional.of(flashCard);
-        }
+        if (packed == CardCode.INVALID)
+            return Optional.empty();
 
-        return Optional.empty();
+        return Optional.ofNullable(storage.getByCode(packed));
     }
 
     public FlashCard getFlashCard(String key) {
-        return flashCards.get(key);
+        return storage.get(key);
     }
 
-    public void importCards(String filepath) {
-        final String CSV_EXTENSION = ".csv", COMMA_SEPARATOR = ",", STANDARD_SEPARATOR = "->";
-        final boolean isCSV = filepath.toLowerCase().endsWith(CSV_EXTENSION);
+    public void importCards(String filepath, final boolean isDryRun) {
+        final int CLUE = 0, ANSWER = 1, TOTAL = 2, BATCH_SIZE = 4096, PROGRESS_INTERVAL = 100_000;
 
         filepath = filepath.replace("/", File.separator).replace("\\", File.separator);
 
-        try {
-            BufferedReader br = new BufferedReader(new FileReader(filepath));
-
-            for (String line : br.lines().toList()) {
-                final int CLUE = 0, ANSWER = 1, TOTAL = 2;
-                final String SEPARATOR = isCSV ? COMMA_SEPARATOR : STANDARD_SEPARATOR;
+        final long start = System.nanoTime();
+        // clues from the file, in order, that are not yet known to be duplicates
+        final Map<String, String> batch = new LinkedHashMap<>();
+        // a dry run adds nothing to the deck, so it remembers the clues it would have added
+        final Set<String> seen = new HashSet<>();
+        int records = 0, imported = 0, duplicates = 0, malformed = 0;
 
-                String[] fields = line.split(SEPARATOR);
+        try (CardFileReader reader = CardFileReader.open(filepath)) {
+            List<String> fields;
 
-                if (fields.length != TOTAL)
+            while ((fields = reader.next()) != null) {
+                // blank lines are not records
+                if (fields.size() == 1 && fields.get(CLUE).isBlank())
                     continue;
 
-                FlashCard flashCard = FlashCard.createNew(fields[CLUE], fields[ANSWER]);
-                addFlashCard(flashCard, true);
+                records++;
+
+                if (fields.size() != TOTAL || !DeckFileParser.isStorableField(fields.get(CLUE)) ||
+                        !DeckFileParser.isStorableField(fields.get(ANSWER)))
+                    malformed++;
+                else if (batch.putIfAbsent(fields.get(CLUE), fields.get(ANSWER)) != null)
+                    duplicates++;
+
+                if (batch.size() == BATCH_SIZE) {
+                    imported += importBatch(batch, seen, isDryRun);
+                    duplicates += batch.size();
+                    batch.clear();
+                }
+
+                if (records % PROGRESS_INTERVAL == 0)
+                    CLIOutput.writeImportProgress(records);
             }
-        } catch (FileNotFoundException e) {
+
+            imported += importBatch(batch, seen, isDryRun);
+            duplicates += batch.size();
+        } catch (NoSuchFileException | FileNotFoundException e) {
             ExceptionMessenger.deliver("The file \"" + filepath +
                     "\" could not be found.", false, "No flash cards were imported.");
+            return;
+        } catch (IOException e) {
+            ExceptionMessenger.deliver("The file \"" + filepath +
+                    "\" could not be read to the end.", false,
+                    "Only flash cards read before the failure were imported.");
+            return;
         }
+
+        CLIOutput.writeImportSummary(this, records, imported, duplicates, malformed,
+                System.nanoTime() - start, isDryRun);
     }
 
-    public void saveDeck() {
-        try {
-            saveToFile();
-            CLIOutput.writeSavedDeck(this, filepath);
-        } catch (IOException e) {
-            ExceptionMessenger.deliver(
-                    FFErrorMessages.MESSAGE_FAILED_WRITE_TO_DECK_FILE,
-                    false, FFErrorMessages.CONSEQUENCE_DECK_DATA_NOT_SAVED);
+    // adds the cards whose clues are not already in the deck and removes them from the batch,
+    // leaving behind only the duplicates
+    private int importBatch(final Map<String, String> batch, final Set<String> seen, final boolean isDryRun) {
+        int imported = 0;
+        final Iterator<Map.Entry<String, String>> entries = batch.entrySet().iterator();
+
+        while (entries.hasNext()) {
+            final Map.Entry<String, String> entry = entries.next();
+            final String clue = entry.getKey();
+
+            if (storage.containsClue(clue) || (isDryRun && !seen.add(clue)))
+                continue;
+
+            if (!isDryRun)
+                attach(FlashCard.createNew(clue, entry.getValue()));
+
+            entries.remove();
+            imported++;
+        }
+
+        if (imported > 0 && !isDryRun) {
+            fitStorage();
+            markModified();
         }
+
+        return imported;
+    }
+
+    public void saveDeck() {
+        saveInBackground();
+        CLIOutput.writeSavedDeck(this, filepath);
     }
 
     public void clearDeck() {
-        Set<String> keys = new HashSet<>(flashCards.keySet());
-        keys.forEach(flashCards::remove);
+        storage.clear();
+        Arrays.fill(potHistogram, 0);
+        scoreTotal = 0;
+        markModified();
+
+        if (listener != null)
+            listener.flashCardsCleared();
+
         CLIOutput.writeClearedDeck(this);
     }
 
     public void resetMemorizationData() {
-        Set<String> keys = new HashSet<>(flashCards.keySet());
-        keys.forEach(x -> flashCards.get(x).reset());
+        // resetting a card leaves it where it is in the list
+        storage.getFlashCardList().forEach(FlashCard::reset);
         CLIOutput.writeResetDeckMemorizationData(this);
     }
 
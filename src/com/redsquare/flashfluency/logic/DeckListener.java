@@ -0,0 +1,23 @@
+package com.redsquare.flashfluency.logic;
+
+import java.time.LocalDate;
+
+// told of every change to what a deck counts or is tagged with, so that totals and indices
+// kept outside the deck can follow it
+public interface DeckListener {
+    void flashCardAttached(FlashCard flashCard);
+
+    void flashCardDetached(FlashCard flashCard);
+
+    void flashCardContentChanged(FlashCard flashCard);
+
+    void flashCardPotChanged(Pot previousPot, Pot pot);
+
+    void flashCardDueChanged(LocalDate previousDue, LocalDate due);
+
+    void flashCardsCleared();
+
+    void tagAdded(String tag);
+
+    void tagRemoved(String tag);
+}
@@ -0,0 +1,98 @@
+package com.redsquare.flashfluency.logic;
+
+import java.time.LocalDate;
+import java.util.*;
+
+public class DeckSummary {
+    private final int numOfFlashCards;
+    private final int scoreTotal;
+    private final int[] potHistogram;
+    private final Set<String> tags;
+    // epoch day -> number of flash cards due on that day
+    private final SortedMap<Long, Integer> dueHistogram;
+
+    private DeckSummary(final int numOfFlashCards, final int scoreTotal,
+                        final int[] potHistogram, final Set<String> tags,
+                        final SortedMap<Long, Integer> dueHistogram) {
+        this.numOfFlashCards = numOfFlashCards;
+        this.scoreTotal = scoreTotal;
+        this.potHistogram = potHistogram;
+        this.tags = tags;
+        this.dueHistogram = dueHistogram;
+    }
+
+    public static DeckSummary of(final Set<String> tags, final Collection<FlashCard> flashCards) {
+        final int[] potHistogram = new int[Pot.values().length];
+        final SortedMap<Long, Integer> dueHistogram = new TreeMap<>();
+        int scoreTotal = 0;
+
+        for (FlashCard flashCard : flashCards) {
+            potHistogram[flashCard.getPot().ordinal()]++;
+            scoreTotal += flashCard.getPot().getScore();
+            dueHistogram.merge(flashCard.getDue().toEpochDay(), 1, Integer::sum);
+        }
+
+        return new DeckSummary(flashCards.size(), scoreTotal, potHistogram,
+                Set.copyOf(tags), dueHistogram);
+    }
+
+    static DeckSummary fromCounters(
+            final int numOfFlashCards, final int scoreTotal, final int[] potHistogram,
+            final Set<String> tags, final SortedMap<Long, Integer> dueHistogram
+    ) {
+        return new DeckSummary(numOfFlashCards, scoreTotal, potHistogram,
+                Set.copyOf(tags), dueHistogram);
+    }
+
+    public static DeckSummary fromParsedIndex(
+            final int numOfFlashCards, final int scoreTotal, final int[] potHistogram,
+            final Set<String> tags, final SortedMap<Long, Integer> dueHistogram
+    ) {
+        return new DeckSummary(numOfFlashCards, scoreTotal, potHistogram,
+                Set.copyOf(tags), dueHistogram);
+    }
+
+    public int getNumOfFlashCards() {
+        return numOfFlashCards;
+    }
+
+    public int getNumFlashCardsInPot(final Pot pot) {
+        return potHistogram[pot.ordinal()];
+    }
+
+    public int getNumDueFlashCards() {
+        int due = 0;
+
+        for (int count : dueHistogram.headMap((long) SessionClock.today() + 1).values())
+            due += count;
+
+        return due;
+    }
+
+    public Optional<LocalDate> getEarliestDue() {
+        if (dueHistogram.isEmpty())
+            return Optional.empty();
+
+        return Optional.of(LocalDate.ofEpochDay(dueHistogram.firstKey()));
+    }
+
+    public int getPercentageScore() {
+        return (int)((scoreTotal * 100) / (float)(numOfFlashCards * Pot.MAX_SCORE));
+    }
+
+    public int getScoreTotal() {
+        return scoreTotal;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    public int[] getPotHistogram() {
+        return potHistogram.clone();
+    }
+
+    public SortedMap<Long, Integer> getDueHistogram() {
+        return Collections.unmodifiableSortedMap(dueHistogram);
+    }
+}
@@ -0,0 +1,65 @@
+package com.redsquare.flashfluency.logic;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// the flash cards of a deck bucketed by the epoch day they are due, so that due cards
+// can be counted and collected without looking at the cards that are not;
+// each bucket keeps its cards in the order they arrived so that selections can be reproduced
+class DueIndex {
+    private final NavigableMap<Long, Set<FlashCard>> buckets;
+
+    DueIndex() {
+        buckets = new TreeMap<>();
+    }
+
+    void add(final FlashCard flashCard) {
+        buckets.computeIfAbsent(flashCard.getDue().toEpochDay(), x -> new LinkedHashSet<>()).add(flashCard);
+    }
+
+    void remove(final FlashCard flashCard) {
+        remove(flashCard, flashCard.getDue());
+    }
+
+    void move(final FlashCard flashCard, final LocalDate previousDue) {
+        remove(flashCard, previousDue);
+        add(flashCard);
+    }
+
+    void clear() {
+        buckets.clear();
+    }
+
+    int countDueBy(final long epochDay) {
+        int count = 0;
+
+        for (Set<FlashCard> bucket : dueBy(epochDay).values())
+            count += bucket.size();
+
+        return count;
+    }
+
+    List<FlashCard> getDueBy(final long epochDay) {
+        final List<FlashCard> due = new ArrayList<>();
+        dueBy(epochDay).values().forEach(due::addAll);
+        return due;
+    }
+
+    // epoch day -> number of flash cards due on that day
+    SortedMap<Long, Integer> getHistogram() {
+        final SortedMap<Long, Integer> histogram = new TreeMap<>();
+        buckets.forEach((day, bucket) -> histogram.put(day, bucket.size()));
+        return histogram;
+    }
+
+    private NavigableMap<Long, Set<FlashCard>> dueBy(final long epochDay) {
+        return buckets.headMap(epochDay, true);
+    }
+
+    private void remove(final FlashCard flashCard, final LocalDate due) {
+        final Set<FlashCard> bucket = buckets.get(due.toEpochDay());
+
+        if (bucket != null && bucket.remove(flashCard) && bucket.isEmpty())
+            buckets.remove(due.toEpochDay());
+    }
+}
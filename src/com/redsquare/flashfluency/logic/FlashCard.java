@@ -6,7 +6,8 @@ import java.time.LocalDate;
 
 public class FlashCard {
     private String clue, answer;
-    private final String code;
+    private String code;
+    private long packedCode;
 
     private boolean introduced;
     private LocalDate due;
@@ -18,6 +19,12 @@ public class FlashCard {
 
     private int correctInTests, attemptedInTests;
 
+    // the deck this card belongs to is notified of every persisted change
+    private Deck deck;
+    private int version;
+    // where the deck keeps this card in its list of cards
+    private int deckPosition;
+
     private FlashCard(
             final String clue, final String answer, final boolean introduced,
             final LocalDate due, final Pot pot, final int potCounter,
@@ -27,6 +34,7 @@ public class FlashCard {
         this.clue = clue;
         this.answer = answer;
         this.code = code;
+        this.packedCode = CardCode.pack(code);
 
         this.introduced = introduced;
         this.due = due;
@@ -40,7 +48,7 @@ public class FlashCard {
     }
 
     public static FlashCard createNew(String clue, String answer) {
-        return new FlashCard(clue, answer, false, LocalDate.now(),
+        return new FlashCard(clue, answer, false, SessionClock.todayDate(),
                 Pot.NEW, Pot.NEW.answersForPromotion(),
                 0, 0, generateNewCode());
     }
@@ -55,28 +63,73 @@ public class FlashCard {
     }
 
     public static String generateNewCode() {
-        final int DIGITS = 8;
-        final StringBuilder code = new StringBuilder();
-        final double NUM_PROB = 0.3;
-
-        for (int i = 0; i < DIGITS; i++) {
-            final int spread;
-            final char min, max;
-
-            if (MathHelper.p(NUM_PROB)) {
-                min = '0';
-                max = '9';
-            } else {
-                min = 'A';
-                max = 'Z';
-            }
-
-            spread = (max - min) + 1;
-            final char digit = (char)(min + MathHelper.boundedRandom(spread));
-            code.append(digit);
-        }
+        return CardCode.unpack(CardCode.random());
+    }
+
+    void setDeck(final Deck deck) {
+        this.deck = deck;
+    }
+
+    int getDeckPosition() {
+        return deckPosition;
+    }
+
+    void setDeckPosition(final int deckPosition) {
+        this.deckPosition = deckPosition;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    // changes to the learning state of the card can be journaled by the deck
+    private void modified() {
+        version++;
+
+        if (deck != null)
+            deck.flashCardModified(this);
+    }
+
+    private void dueChanged(final LocalDate previousDue) {
+        if (deck != null && !previousDue.isEqual(due))
+            deck.flashCardDueChanged(this, previousDue);
+    }
+
+    private void setPot(final Pot pot) {
+        final Pot previousPot = this.pot;
+        this.pot = pot;
+
+        if (deck != null && previousPot != pot)
+            deck.flashCardPotChanged(previousPot, pot);
+    }
+
+    private void contentModified() {
+        version++;
+
+        if (deck != null)
+            deck.flashCardContentModified(this);
+    }
 
-        return code.toString();
+    public void restoreState(
+            final boolean introduced, final LocalDate due, final Pot pot,
+            final int potCounter, final int correctInTests, final int attemptedInTests
+    ) {
+        final LocalDate previousDue = this.due;
+
+        this.introduced = introduced;
+        this.due = due;
+        setPot(pot);
+        this.potCounter = potCounter;
+        this.correctInTests = correctInTests;
+        this.attemptedInTests = attemptedInTests;
+
+        dueChanged(previousDue);
+        modified();
+    }
+
+    public FlashCard snapshot() {
+        return new FlashCard(clue, answer, introduced, due, pot, potCounter,
+                correctInTests, attemptedInTests, code);
     }
 
     public void initializeLessonCounter() {
@@ -99,6 +152,8 @@ public class FlashCard {
         attemptedInTests++;
         if (correct)
             correctInTests++;
+
+        modified();
     }
 
     private void correctAdjustment() {
@@ -106,7 +161,7 @@ public class FlashCard {
         lessonCounter--;
         
         if (potCounter <= 0) {
-            pot = pot.promote();
+            setPot(pot.promote());
             potCounter = pot.answersForPromotion();
         }
 
@@ -114,7 +169,7 @@ public class FlashCard {
     }
 
     private void incorrectAdjustment() {
-        pot = pot.demote();
+        setPot(pot.demote());
         potCounter = pot.answersForPromotion();
         initializeLessonCounter();
         setDueToday();
@@ -132,12 +187,29 @@ public class FlashCard {
         return code;
     }
 
+    public long getPackedCode() {
+        return packedCode;
+    }
+
+    // only the deck reassigns codes, when a card's code is taken or malformed
+    void setCode(final long packedCode) {
+        this.packedCode = packedCode;
+        this.code = CardCode.unpack(packedCode);
+    }
+
     public void setClue(final String clue) {
+        final String oldClue = this.clue;
         this.clue = clue;
+
+        if (deck != null)
+            deck.flashCardClueChanged(oldClue, this);
+
+        contentModified();
     }
 
     public void setAnswer(final String answer) {
         this.answer = answer;
+        contentModified();
     }
 
     public boolean isIntroduced() {
@@ -146,20 +218,28 @@ public class FlashCard {
 
     public void introduce() {
         introduced = true;
+        modified();
     }
 
     public void setDueToday() {
-        due = LocalDate.of(LocalDate.now().getYear(),
-                LocalDate.now().getMonthValue(), LocalDate.now().getDayOfMonth());
+        setDue(SessionClock.todayDate());
     }
 
     public void setDueFromPot() {
-        due = LocalDate.now().plusDays(pot.daysDue());
+        setDue(SessionClock.todayDate().plusDays(pot.daysDue()));
+    }
+
+    private void setDue(final LocalDate due) {
+        final LocalDate previousDue = this.due;
+        this.due = due;
+
+        dueChanged(previousDue);
+        modified();
     }
 
     public void reset() {
         introduced = false;
-        pot = Pot.NEW;
+        setPot(Pot.NEW);
         potCounter = pot.answersForPromotion();
 
         setDueToday();
@@ -170,7 +250,7 @@ public class FlashCard {
     }
 
     public boolean isDue() {
-        return due.isBefore(LocalDate.now()) || due.isEqual(LocalDate.now());
+        return due.toEpochDay() <= SessionClock.today();
     }
 
     public Pot getPot() {
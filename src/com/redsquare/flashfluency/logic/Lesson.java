@@ -2,13 +2,12 @@ package com.redsquare.flashfluency.logic;
 
 import com.redsquare.flashfluency.cli.CLIOutput;
 import com.redsquare.flashfluency.cli.ContextManager;
-import com.redsquare.flashfluency.cli.ExceptionMessenger;
-import com.redsquare.flashfluency.system.exceptions.FFErrorMessages;
+import com.redsquare.flashfluency.system.Settings;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.random.RandomGenerator;
 
 public class Lesson {
     private static final String RETIRE_SEQUENCE = "???";
@@ -19,11 +18,14 @@ public class Lesson {
 
     private final List<Question> questions;
     private final boolean SR; // spaced repetition
+    // drives every random choice in the lesson, so a fixed seed reproduces it
+    private final RandomGenerator random;
 
     private Lesson(Deck deck) {
         this.deck = deck;
         // SR 'learn' command lesson constructor
         this.SR = true;
+        this.random = MathHelper.generator(Settings.getSelectionSeed());
         deck.prepForLesson(isSR());
 
         this.questions = new ArrayList<>();
@@ -34,6 +36,7 @@ public class Lesson {
         this.deck = deck;
         // Non-SR 'test' command lesson constructor
         this.SR = false;
+        this.random = MathHelper.generator(Settings.getSelectionSeed());
         deck.prepForLesson(isSR());
 
         this.questions = new ArrayList<>();
@@ -67,7 +70,7 @@ public class Lesson {
     }
 
     private void setInitialTestQuestions(final Deck deck, final int NUM_Qs) {
-        Set<FlashCard> toTest = deck.getCardsForTest(NUM_Qs);
+        List<FlashCard> toTest = deck.getCardsForTest(NUM_Qs, random);
 
         toTest.forEach(x -> {
             x.initializeLessonCounter();
@@ -76,14 +79,14 @@ public class Lesson {
     }
 
     private void setInitialSRQuestions(final Deck deck) {
-        Set<FlashCard> toReview = deck.getCardsThatAreDue();
+        List<FlashCard> toReview = deck.getCardsThatAreDue(random);
 
         for (FlashCard r : toReview) {
             r.initializeLessonCounter();
             questions.add(Question.create(r));
         }
 
-        Set<FlashCard> toIntroduce = deck.getCardsToIntroduce(toReview);
+        List<FlashCard> toIntroduce = deck.getCardsToIntroduce(new HashSet<>(toReview), random);
 
         for (FlashCard i : toIntroduce) {
             i.initializeLessonCounter();
@@ -112,7 +115,7 @@ public class Lesson {
 
             // question will repeat in next round
             if (SR && q.getFlashCard().getLessonCounter() > 0) {
-                final int insertionIndex = MathHelper.randomInsertionIndex(nextRoundOfQuestions);
+                final int insertionIndex = MathHelper.randomInsertionIndex(nextRoundOfQuestions, random);
                 nextRoundOfQuestions.add(insertionIndex, Question.create(q.getFlashCard()));
                 CLIOutput.writeCardRepeatNotification(q.getFlashCard().getLessonCounter());
             }
@@ -124,15 +127,9 @@ public class Lesson {
             }
         }
 
-        try {
-            ContextManager.lessonFinished();
-            deck.saveToFile();
-            CLIOutput.writeLessonReview(this);
-        } catch (IOException e) {
-            ExceptionMessenger.deliver(
-                    FFErrorMessages.MESSAGE_FAILED_WRITE_TO_DECK_FILE,
-                    false, FFErrorMessages.CONSEQUENCE_DECK_DATA_NOT_SAVED);
-        }
+        ContextManager.lessonFinished();
+        deck.saveReviewedCards();
+        CLIOutput.writeLessonReview(this);
     }
 
     public List<Question> getQuestions() {
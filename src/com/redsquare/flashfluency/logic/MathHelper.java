@@ -1,9 +1,14 @@
 package com.redsquare.flashfluency.logic;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
 
 public class MathHelper {
     private static final Random r = new Random();
@@ -15,10 +20,68 @@ public class MathHelper {
         return new ArrayList<>(set).get(boundedRandom(set.size()));
     }
 
-    public static <T> int randomInsertionIndex(final List<T> list) {
+    public static <T> int randomInsertionIndex(final List<T> list, final RandomGenerator random) {
         final int exclusiveMaxBound = list.size() + 1;
 
-        return boundedRandom(exclusiveMaxBound);
+        return random.nextInt(exclusiveMaxBound);
+    }
+
+    // a seed of zero gives a differently seeded generator every time
+    public static RandomGenerator generator(final int seed) {
+        return seed == 0 ? new Random() : new Random(seed);
+    }
+
+    // up to n elements in random order, by a partial Fisher-Yates shuffle whose swaps are
+    // recorded rather than made, so the list is neither copied nor modified
+    public static <T> List<T> sample(final List<T> list, final int n, final RandomGenerator random) {
+        final int size = list.size(), count = Math.max(0, Math.min(n, size));
+        final List<T> sample = new ArrayList<>(count);
+        final Map<Integer, Integer> swapped = new HashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            final int j = i + random.nextInt(size - i);
+            final int atJ = swapped.getOrDefault(j, j);
+
+            swapped.put(j, swapped.getOrDefault(i, i));
+            sample.add(list.get(atJ));
+        }
+
+        return sample;
+    }
+
+    // up to n of the matching elements in random order, by reservoir sampling in a single pass
+    public static <T> List<T> sample(
+            final Iterable<T> elements, final Predicate<T> filter,
+            final int n, final RandomGenerator random
+    ) {
+        final List<T> reservoir = new ArrayList<>(Math.max(0, n));
+
+        if (n <= 0)
+            return reservoir;
+
+        int matched = 0;
+
+        for (T element : elements) {
+            if (!filter.test(element))
+                continue;
+
+            matched++;
+
+            if (reservoir.size() < n)
+                reservoir.add(element);
+            else {
+                final int j = random.nextInt(matched);
+
+                if (j < n)
+                    reservoir.set(j, element);
+            }
+        }
+
+        // the reservoir holds a uniform sample but not in a uniform order
+        for (int i = reservoir.size() - 1; i > 0; i--)
+            Collections.swap(reservoir, i, random.nextInt(i + 1));
+
+        return reservoir;
     }
 
     public static int boundedRandom(final int max) {
@@ -0,0 +1,151 @@
+package com.redsquare.flashfluency.logic;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// one FlashCard object per card, with a clue map, a code index and a due index over them
+class ObjectCardStorage implements CardStorage {
+    private final Map<String, FlashCard> flashCards;
+    private final DueIndex dueIndex;
+    private final CodeIndex codeIndex;
+    // the cards in no particular order, for picking them at random by position
+    private final List<FlashCard> cardList;
+
+    ObjectCardStorage() {
+        this.flashCards = new HashMap<>();
+        this.dueIndex = new DueIndex();
+        this.codeIndex = new CodeIndex();
+        this.cardList = new ArrayList<>();
+    }
+
+    @Override
+    public int size() {
+        return flashCards.size();
+    }
+
+    @Override
+    public boolean containsClue(final String clue) {
+        return flashCards.containsKey(clue);
+    }
+
+    @Override
+    public boolean containsCode(final long packedCode) {
+        return codeIndex.contains(packedCode);
+    }
+
+    @Override
+    public FlashCard get(final String clue) {
+        return flashCards.get(clue);
+    }
+
+    @Override
+    public FlashCard getByCode(final long packedCode) {
+        return codeIndex.get(packedCode);
+    }
+
+    @Override
+    public Set<String> getClues() {
+        return flashCards.keySet();
+    }
+
+    @Override
+    public Collection<FlashCard> getFlashCards() {
+        return flashCards.values();
+    }
+
+    @Override
+    public List<FlashCard> getFlashCardList() {
+        return cardList;
+    }
+
+    @Override
+    public void add(final FlashCard flashCard) {
+        flashCards.put(flashCard.getClue(), flashCard);
+        codeIndex.put(flashCard.getPackedCode(), flashCard);
+        dueIndex.add(flashCard);
+
+        flashCard.setDeckPosition(cardList.size());
+        cardList.add(flashCard);
+    }
+
+    @Override
+    public void remove(final FlashCard flashCard) {
+        flashCards.remove(flashCard.getClue());
+        codeIndex.remove(flashCard.getPackedCode(), flashCard);
+
+        // the last card fills the gap so that removal does not shift the list
+        final FlashCard last = cardList.remove(cardList.size() - 1);
+
+        if (last != flashCard) {
+            cardList.set(flashCard.getDeckPosition(), last);
+            last.setDeckPosition(flashCard.getDeckPosition());
+        }
+        dueIndex.remove(flashCard);
+    }
+
+    @Override
+    public void finishLoading() {
+        // the cards are the storage
+    }
+
+    @Override
+    public void clear() {
+        flashCards.values().forEach(x -> x.setDeck(null));
+        flashCards.clear();
+        dueIndex.clear();
+        codeIndex.clear();
+        cardList.clear();
+    }
+
+    @Override
+    public void stateChanged(final FlashCard flashCard) {
+        // the card is the storage
+    }
+
+    @Override
+    public void dueChanged(final FlashCard flashCard, final LocalDate previousDue) {
+        dueIndex.move(flashCard, previousDue);
+    }
+
+    @Override
+    public void clueChanged(final String oldClue, final FlashCard flashCard) {
+        // a clue that now collides with another card keeps its old key, as before
+        if (flashCards.get(oldClue) == flashCard &&
+                !flashCards.containsKey(flashCard.getClue())) {
+            flashCards.remove(oldClue);
+            flashCards.put(flashCard.getClue(), flashCard);
+        }
+    }
+
+    @Override
+    public void contentChanged(final FlashCard flashCard) {
+        // the card is the storage
+    }
+
+    @Override
+    public int countDueBy(final long epochDay) {
+        return dueIndex.countDueBy(epochDay);
+    }
+
+    @Override
+    public List<FlashCard> getDueBy(final long epochDay) {
+        return dueIndex.getDueBy(epochDay);
+    }
+
+    @Override
+    public SortedMap<Long, Integer> getDueHistogram() {
+        return dueIndex.getHistogram();
+    }
+
+    @Override
+    public Map<String, FlashCard> asMap() {
+        return flashCards;
+    }
+
+    @Override
+    public Map<String, FlashCard> snapshot() {
+        final Map<String, FlashCard> snapshot = new HashMap<>();
+        flashCards.forEach((clue, flashCard) -> snapshot.put(clue, flashCard.snapshot()));
+        return snapshot;
+    }
+}
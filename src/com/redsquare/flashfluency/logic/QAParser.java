@@ -31,7 +31,7 @@ public class QAParser {
         };
     }
     
-    private static String convertToUnaccented(final String toConvert) {
+    public static String convertToUnaccented(final String toConvert) {
         String s = toConvert.trim().toLowerCase();
         StringBuilder sb = new StringBuilder();
 
@@ -0,0 +1,41 @@
+package com.redsquare.flashfluency.logic;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+
+// "today" as an epoch day, read from the clock once per command rather than once per card;
+// the clock can be replaced so that tests and benchmarks can move time forward
+public class SessionClock {
+    private static Clock clock = Clock.systemDefaultZone();
+
+    private static int today;
+    private static LocalDate todayDate;
+
+    static {
+        tick();
+    }
+
+    // called as each command starts
+    public static void tick() {
+        todayDate = LocalDate.now(clock);
+        today = (int) todayDate.toEpochDay();
+    }
+
+    public static int today() {
+        return today;
+    }
+
+    public static LocalDate todayDate() {
+        return todayDate;
+    }
+
+    public static void setClock(final Clock clock) {
+        SessionClock.clock = clock;
+        tick();
+    }
+
+    public static void advanceDays(final int days) {
+        setClock(Clock.offset(clock, Duration.ofDays(days)));
+    }
+}
@@ -0,0 +1,101 @@
+package com.redsquare.flashfluency.system;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// the only thread that writes deck files while the program is running; writes run in the order
+// they were queued, and a write that replaces a file drops any still-queued writes to that file
+public class BackgroundWriter {
+    @FunctionalInterface
+    public interface Write {
+        void run() throws IOException;
+    }
+
+    private record Task(String filepath, Write write, Runnable onFailure) {
+    }
+
+    private static final Deque<Task> QUEUE = new ArrayDeque<>();
+    // run on the interactive thread the next time it reaches the prompt
+    private static final Queue<Runnable> FAILURES = new ConcurrentLinkedQueue<>();
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "background-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // for writes that produce the entire file, which makes any earlier queued write to it redundant
+    public static void replace(final String filepath, final Write write, final Runnable onFailure) {
+        synchronized (QUEUE) {
+            QUEUE.removeIf(x -> x.filepath().equals(filepath));
+            QUEUE.add(new Task(filepath, write, onFailure));
+        }
+
+        WRITER.submit(BackgroundWriter::runNext);
+    }
+
+    // for writes that build on whatever was queued before them
+    public static void append(final String filepath, final Write write, final Runnable onFailure) {
+        synchronized (QUEUE) {
+            QUEUE.add(new Task(filepath, write, onFailure));
+        }
+
+        WRITER.submit(BackgroundWriter::runNext);
+    }
+
+    public static void delete(final String filepath) {
+        replace(filepath, () -> FileIOHelper.deleteFileFootprint(filepath),
+                () -> FileIOHelper.deliverFileFootprintNotDeleted(filepath));
+    }
+
+    // the deck file goes together with its review journal
+    public static void deleteDeck(final String filepath) {
+        delete(filepath);
+        append(filepath, () -> DeckJournal.discard(filepath),
+                () -> FileIOHelper.deliverFileFootprintNotDeleted(DeckJournal.journalFilepath(filepath)));
+        append(filepath, () -> FileIOHelper.deleteFileFootprint(FileWriteBatch.redoFilepath(filepath)),
+                () -> FileIOHelper.deliverFileFootprintNotDeleted(FileWriteBatch.redoFilepath(filepath)));
+    }
+
+    private static void runNext() {
+        final Task task;
+
+        synchronized (QUEUE) {
+            task = QUEUE.poll();
+        }
+
+        // a replaced write leaves its submission behind with nothing to do
+        if (task == null)
+            return;
+
+        try {
+            task.write().run();
+        } catch (IOException | RuntimeException e) {
+            FAILURES.add(task.onFailure());
+        }
+    }
+
+    // blocks until every write queued so far has been attempted
+    public static void flush() {
+        try {
+            WRITER.submit(() -> {}).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void reportFailures() {
+        Runnable onFailure;
+
+        while ((onFailure = FAILURES.poll()) != null)
+            onFailure.run();
+    }
+}
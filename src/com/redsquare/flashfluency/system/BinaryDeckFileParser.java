@@ -0,0 +1,241 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.Deck;
+import com.redsquare.flashfluency.logic.FlashCard;
+import com.redsquare.flashfluency.logic.Pot;
+import com.redsquare.flashfluency.system.exceptions.InvalidDeckFileFormatException;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+
+/*
+ * Layout (big-endian):
+ * header  - magic, version, description, tags, number of cards
+ * records - one fixed-width record per card, sorted by clue
+ * strings - clue and answer of each card, in record order
+ */
+public class BinaryDeckFileParser {
+    static final byte[] MAGIC = { 'F', 'F', 'B', 'D' };
+    private static final short VERSION = 1;
+
+    // record field offsets
+    private static final int DUE = 0, POT = 4, POT_COUNTER = 5, INTRODUCED = 9,
+            CORRECT = 10, ATTEMPTED = 14, CODE = 18, RECORD_SIZE = 30,
+            CODE_LENGTH = 8;
+
+    private static final Pot[] POTS = Pot.values();
+
+    public static Deck read(final String name, final String filepath)
+            throws IOException, InvalidDeckFileFormatException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Path.of(filepath)));
+
+        try {
+            final byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+
+            if (!Arrays.equals(magic, MAGIC) || buffer.getShort() != VERSION)
+                throw InvalidDeckFileFormatException.unsupportedBinaryDeckFile(filepath);
+
+            final String description = readString(buffer);
+            final int numTags = buffer.getInt();
+            final Set<String> tags = new HashSet<>();
+
+            for (int i = 0; i < numTags; i++)
+                tags.add(readString(buffer));
+
+            final int numCards = buffer.getInt();
+            final ByteBuffer records = buffer.slice(buffer.position(), numCards * RECORD_SIZE);
+            buffer.position(buffer.position() + numCards * RECORD_SIZE);
+
+            final Map<String, FlashCard> flashCards = new HashMap<>();
+            final byte[] code = new byte[CODE_LENGTH];
+
+            for (int i = 0; i < numCards; i++) {
+                final int offset = i * RECORD_SIZE;
+                final String clue = readString(buffer), answer = readString(buffer);
+
+                records.get(offset + CODE, code);
+
+                flashCards.put(clue, FlashCard.fromParsedDeckFile(clue, answer,
+                        records.get(offset + INTRODUCED) != 0,
+                        LocalDate.ofEpochDay(records.getInt(offset + DUE)),
+                        POTS[records.get(offset + POT)],
+                        records.getInt(offset + POT_COUNTER),
+                        records.getInt(offset + CORRECT),
+                        records.getInt(offset + ATTEMPTED),
+                        new String(code, StandardCharsets.US_ASCII)));
+            }
+
+            final int journaledEntries = DeckJournal.replay(filepath, flashCards);
+
+            return Deck.fromParsedDeckFile(name, filepath, description, tags, flashCards,
+                    DeckFileFormat.BINARY, journaledEntries, false);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException |
+                 NegativeArraySizeException | DateTimeException e) {
+            throw InvalidDeckFileFormatException.flashCardsImproperlyFormatted(filepath);
+        }
+    }
+
+    public static void saveToFile(final String filepath, final String description,
+                                  final Set<String> tags, final Map<String, FlashCard> flashCards,
+                                  final FileWriteBatch batch)
+            throws IOException {
+        final List<String> clues = new ArrayList<>(flashCards.keySet());
+        clues.sort(Comparator.naturalOrder());
+
+        final byte[] header = encodeHeader(description, tags, clues.size());
+        final ByteBuffer records = ByteBuffer.allocate(clues.size() * RECORD_SIZE);
+
+        for (String clue : clues)
+            encodeRecord(flashCards.get(clue), records);
+
+        final byte[] strings = encodeStrings(clues, flashCards);
+
+        if (!stageChangedRecords(filepath, header, records, strings, batch))
+            batch.stage(filepath, x -> writeWholeFile(x, header, records, strings));
+    }
+
+    // rewrites only the records that differ when no card text or deck metadata has changed
+    private static boolean stageChangedRecords(
+            final String filepath, final byte[] header, final ByteBuffer records,
+            final byte[] strings, final FileWriteBatch batch
+    ) throws IOException {
+        if (DeckFileFormat.detect(filepath) != DeckFileFormat.BINARY)
+            return false;
+
+        final List<Integer> changed = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(Path.of(filepath), StandardOpenOption.READ)) {
+            final int stringsOffset = header.length + records.capacity();
+
+            if (channel.size() != stringsOffset + strings.length)
+                return false;
+
+            final ByteBuffer existing = ByteBuffer.allocate(stringsOffset + strings.length);
+
+            while (existing.hasRemaining())
+                if (channel.read(existing, existing.position()) <= 0)
+                    return false;
+
+            if (!Arrays.equals(header, 0, header.length,
+                    existing.array(), 0, header.length) ||
+                    !Arrays.equals(strings, 0, strings.length,
+                            existing.array(), stringsOffset, existing.capacity()))
+                return false;
+
+            final int numRecords = records.capacity() / RECORD_SIZE;
+
+            for (int i = 0; i < numRecords; i++) {
+                final int offset = i * RECORD_SIZE, fileOffset = header.length + offset;
+
+                // the code and the hash of the clue and answer end each record;
+                // the string table matched, so these only differ if a code changed
+                if (!Arrays.equals(records.array(), offset + CODE, offset + RECORD_SIZE,
+                        existing.array(), fileOffset + CODE, fileOffset + RECORD_SIZE))
+                    return false;
+            }
+
+            for (int i = 0; i < numRecords; i++) {
+                final int offset = i * RECORD_SIZE, fileOffset = header.length + offset;
+
+                if (!Arrays.equals(records.array(), offset, offset + RECORD_SIZE,
+                        existing.array(), fileOffset, fileOffset + RECORD_SIZE))
+                    changed.add(offset);
+            }
+        }
+
+        // records are fixed-size, so they are overwritten where they are when the batch commits
+        for (int offset : changed)
+            batch.update(filepath, header.length + offset, records.slice(offset, RECORD_SIZE));
+
+        return true;
+    }
+
+    private static void writeWholeFile(
+            final Path target, final byte[] header, final ByteBuffer records, final byte[] strings
+    ) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(target.toFile(), false))) {
+            out.write(header);
+            out.write(records.array());
+            out.write(strings);
+        }
+    }
+
+    private static byte[] encodeStrings(final List<String> clues,
+                                        final Map<String, FlashCard> flashCards) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+
+        for (String clue : clues) {
+            final FlashCard flashCard = flashCards.get(clue);
+            writeString(out, flashCard.getClue());
+            writeString(out, flashCard.getAnswer());
+        }
+
+        out.flush();
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeHeader(final String description, final Set<String> tags,
+                                       final int numCards) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+
+        // sorted so that an unchanged deck always produces the same header
+        final List<String> sortedTags = new ArrayList<>(tags);
+        sortedTags.sort(Comparator.naturalOrder());
+
+        out.write(MAGIC);
+        out.writeShort(VERSION);
+        writeString(out, description);
+        out.writeInt(sortedTags.size());
+
+        for (String tag : sortedTags)
+            writeString(out, tag);
+
+        out.writeInt(numCards);
+        out.flush();
+
+        return bytes.toByteArray();
+    }
+
+    private static void encodeRecord(final FlashCard flashCard, final ByteBuffer records)
+            throws IOException {
+        final byte[] code = flashCard.getCode().getBytes(StandardCharsets.US_ASCII);
+
+        if (code.length != CODE_LENGTH)
+            throw new IOException("The flash card code \"" + flashCard.getCode() +
+                    "\" cannot be stored in a binary deck file.");
+
+        records.putInt((int) flashCard.getDue().toEpochDay());
+        records.put((byte) flashCard.getPot().ordinal());
+        records.putInt(flashCard.getPotCounter());
+        records.put((byte) (flashCard.isIntroduced() ? 1 : 0));
+        records.putInt(flashCard.getCorrectInTests());
+        records.putInt(flashCard.getAttemptedInTests());
+        records.put(code);
+        records.putInt(Objects.hash(flashCard.getClue(), flashCard.getAnswer()));
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,225 @@
+package com.redsquare.flashfluency.system;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// reads the records of a word list one at a time: RFC 4180 CSV, or one "clue->answer" per line
+public class CardFileReader implements Closeable {
+    public static final String CSV_EXTENSION = ".csv", STANDARD_SEPARATOR = "->";
+
+    private static final char QUOTE = '"', COMMA = ',', CR = '\r', LF = '\n',
+            ESCAPE = '\\', BYTE_ORDER_MARK = '\uFEFF';
+    private static final int END_OF_INPUT = -1, BUFFER_SIZE = 1 << 16;
+
+    private final Reader reader;
+    private final boolean isCSV;
+    private final char[] buffer;
+    private int position, limit;
+    private boolean started;
+
+    private final StringBuilder field;
+    private final List<String> fields;
+
+    private CardFileReader(final Reader reader, final boolean isCSV) {
+        this.reader = reader;
+        this.isCSV = isCSV;
+        this.buffer = new char[BUFFER_SIZE];
+        this.field = new StringBuilder();
+        this.fields = new ArrayList<>();
+    }
+
+    public static CardFileReader open(final String filepath) throws IOException {
+        return new CardFileReader(
+                Files.newBufferedReader(Path.of(filepath), Charset.defaultCharset()),
+                isCSV(filepath));
+    }
+
+    public static CardFileReader of(final Reader reader, final boolean isCSV) {
+        return new CardFileReader(reader, isCSV);
+    }
+
+    public static boolean isCSV(final String filepath) {
+        return filepath.toLowerCase().endsWith(CSV_EXTENSION);
+    }
+
+    // the fields of the next record, or null once the input is exhausted;
+    // the list is reused, so it is only valid until the next call
+    public List<String> next() throws IOException {
+        fields.clear();
+
+        if (peek() == END_OF_INPUT)
+            return null;
+
+        if (isCSV)
+            readCSVRecord();
+        else
+            readStandardRecord();
+
+        return fields;
+    }
+
+    private void readCSVRecord() throws IOException {
+        while (true) {
+            field.setLength(0);
+            int c = peek();
+
+            if (c == QUOTE) {
+                position++;
+
+                // a doubled quote inside a quoted field stands for one quote
+                while (true) {
+                    c = read();
+
+                    if (c == END_OF_INPUT)
+                        break;
+                    else if (c == QUOTE) {
+                        if (peek() == QUOTE) {
+                            position++;
+                            field.append(QUOTE);
+                        } else
+                            break;
+                    } else
+                        field.append((char) c);
+                }
+
+                // anything between the closing quote and the separator is kept, as lenient readers do
+                while ((c = peek()) != COMMA && c != CR && c != LF && c != END_OF_INPUT) {
+                    position++;
+                    field.append((char) c);
+                }
+            } else {
+                while ((c = peek()) != COMMA && c != CR && c != LF && c != END_OF_INPUT) {
+                    position++;
+                    field.append((char) c);
+                }
+            }
+
+            fields.add(field.toString());
+
+            if (peek() == COMMA)
+                position++;
+            else {
+                skipLineBreak();
+                return;
+            }
+        }
+    }
+
+    // "\->" stands for a literal arrow and "\\" for a literal backslash
+    private void readStandardRecord() throws IOException {
+        field.setLength(0);
+        int c;
+
+        while ((c = peek()) != CR && c != LF && c != END_OF_INPUT) {
+            position++;
+
+            if (c == ESCAPE && (peek() == ESCAPE || startsSeparator())) {
+                if (peek() == ESCAPE) {
+                    position++;
+                    field.append(ESCAPE);
+                } else {
+                    position += STANDARD_SEPARATOR.length();
+                    field.append(STANDARD_SEPARATOR);
+                }
+            } else if (c == STANDARD_SEPARATOR.charAt(0) && separatorRest()) {
+                position += STANDARD_SEPARATOR.length() - 1;
+                fields.add(field.toString());
+                field.setLength(0);
+            } else
+                field.append((char) c);
+        }
+
+        fields.add(field.toString());
+        skipLineBreak();
+    }
+
+    private boolean startsSeparator() throws IOException {
+        if (!ensure(STANDARD_SEPARATOR.length()))
+            return false;
+
+        for (int i = 0; i < STANDARD_SEPARATOR.length(); i++)
+            if (buffer[position + i] != STANDARD_SEPARATOR.charAt(i))
+                return false;
+
+        return true;
+    }
+
+    // whether the characters after the one just read complete the separator
+    private boolean separatorRest() throws IOException {
+        final int rest = STANDARD_SEPARATOR.length() - 1;
+
+        if (!ensure(rest))
+            return false;
+
+        for (int i = 0; i < rest; i++)
+            if (buffer[position + i] != STANDARD_SEPARATOR.charAt(i + 1))
+                return false;
+
+        return true;
+    }
+
+    private void skipLineBreak() throws IOException {
+        if (peek() == CR)
+            position++;
+        if (peek() == LF)
+            position++;
+    }
+
+    private int peek() throws IOException {
+        if (!ensure(1))
+            return END_OF_INPUT;
+
+        // a byte order mark, as spreadsheet programs write, is not part of the first field
+        if (!started) {
+            started = true;
+
+            if (buffer[position] == BYTE_ORDER_MARK)
+                position++;
+
+            if (!ensure(1))
+                return END_OF_INPUT;
+        }
+
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        final int c = peek();
+
+        if (c != END_OF_INPUT)
+            position++;
+
+        return c;
+    }
+
+    private boolean ensure(final int count) throws IOException {
+        if (limit - position >= count)
+            return true;
+
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+
+        while (limit < count) {
+            final int read = reader.read(buffer, limit, buffer.length - limit);
+
+            if (read == END_OF_INPUT)
+                return false;
+
+            limit += read;
+        }
+
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
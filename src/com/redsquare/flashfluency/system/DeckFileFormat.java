@@ -0,0 +1,30 @@
+package com.redsquare.flashfluency.system;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public enum DeckFileFormat {
+    TEXT, BINARY;
+
+    public static DeckFileFormat detect(final String filepath) {
+        final byte[] magic = BinaryDeckFileParser.MAGIC;
+
+        try (InputStream in = new FileInputStream(filepath)) {
+            final byte[] start = in.readNBytes(magic.length);
+            return Arrays.equals(start, magic) ? BINARY : TEXT;
+        } catch (IOException e) {
+            // files that do not exist yet are written as text
+            return TEXT;
+        }
+    }
+
+    public static DeckFileFormat fromArgument(final String argument) {
+        for (DeckFileFormat format : values())
+            if (format.name().equalsIgnoreCase(argument.trim()))
+                return format;
+
+        return null;
+    }
+}
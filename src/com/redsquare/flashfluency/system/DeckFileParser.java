@@ -7,6 +7,12 @@ import com.redsquare.flashfluency.logic.Pot;
 import com.redsquare.flashfluency.system.exceptions.InvalidDeckFileFormatException;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -28,46 +34,99 @@ public class DeckFileParser {
             DUE = 3, POT = 4, POT_COUNTER = 5, RECORD = 6, CODE = 7,
             NUM_FIELDS = 8, NUM_FIELDS_OLD = 6;
 
-    // date indices
-    private static final int DAY = 0, MONTH = 1, YEAR = 2;
+    private static final char FIELD_SEPARATOR_CHAR = ';', DATE_SEPARATOR_CHAR = '-',
+            RECORD_SEPARATOR_CHAR = '/';
+
+    private static final Pot[] POTS = Pot.values();
+
+    private record ParsedFlashCards(Map<String, FlashCard> flashCards, boolean hasOldEncoding) {}
 
     public static void parse(FFDeckFile deckFile) {
         try {
-            BufferedReader br = new BufferedReader(new FileReader(deckFile.getFilepath()));
+            deckFile.setAssociatedDeck(read(deckFile.getName(), deckFile.getFilepath()));
+        } catch (IOException | InvalidDeckFileFormatException e) {
+            handleFailedParse(deckFile, e);
+        }
+    }
+
+    public static Deck read(final String name, final String filepath)
+            throws IOException, InvalidDeckFileFormatException {
+        FileWriteBatch.recover(filepath);
+
+        final Deck deck = switch (DeckFileFormat.detect(filepath)) {
+            case BINARY -> BinaryDeckFileParser.read(name, filepath);
+            case TEXT -> readText(name, filepath);
+        };
+
+        DeckSummaryIndex.record(filepath, deck.summarize());
+        discardStaleTemp(filepath);
+
+        return deck;
+    }
+
+    // a write that was killed before it committed leaves its temporary file behind; the removal
+    // is queued so that a write to the deck still in the queue gets to commit its own first
+    private static void discardStaleTemp(final String filepath) {
+        final String temp = FileWriteBatch.tempFilepath(filepath);
+
+        if (new File(temp).exists())
+            BackgroundWriter.append(temp, () -> FileIOHelper.deleteFileFootprint(temp),
+                    () -> FileIOHelper.deliverFileFootprintNotDeleted(temp));
+    }
+
+    private static Deck readText(final String name, final String filepath)
+            throws IOException, InvalidDeckFileFormatException {
+        try (FileChannel channel = FileChannel.open(Path.of(filepath), StandardOpenOption.READ)) {
+            // decks are written with the platform charset by saveToFile
+            final LineCursor cursor = new LineCursor(
+                    Channels.newReader(channel, Charset.defaultCharset()));
+
+            final String[] headerLines = new String[MIN_NUM_LINES];
+
+            for (int i = 0; i < MIN_NUM_LINES; i++) {
+                if (!cursor.nextLine())
+                    throw InvalidDeckFileFormatException.tooFewLinesInFileForNecessaryParameters(filepath);
 
-            List<String> lines = br.lines().toList();
+                headerLines[i] = cursor.lineAsString();
+            }
+
+            final String description = parseDescription(headerLines[DESCRIPTION_INDEX], filepath);
+            final Set<String> tags = parseTags(headerLines[TAGS_INDEX], filepath);
+
+            if (!headerLines[FLASH_CARDS_INDEX].startsWith(KEYWORD_FLASH_CARDS + Settings.SETTING_SEPARATOR))
+                throw InvalidDeckFileFormatException.flashCardsImproperlyFormatted(filepath);
+
+            final ParsedFlashCards parsed = parseFlashCards(cursor, filepath);
+            final int journaledEntries = DeckJournal.replay(filepath, parsed.flashCards());
 
-            if (lines.size() < MIN_NUM_LINES)
-                throw InvalidDeckFileFormatException.tooFewLinesInFileForNecessaryParameters(deckFile.getFilepath());
+            return Deck.fromParsedDeckFile(name, filepath, description, tags,
+                    parsed.flashCards(), DeckFileFormat.TEXT, journaledEntries, parsed.hasOldEncoding());
+        }
+    }
 
-            String description = parseDescription(lines.get(DESCRIPTION_INDEX), deckFile);
-            Set<String> tags = parseTags(lines.get(TAGS_INDEX), deckFile);
-            Map<String, FlashCard> flashCards = parseFlashCards(lines, deckFile);
+    public static void handleFailedParse(final FFDeckFile deckFile, final Exception e) {
+        reportFailedParse(deckFile, e);
+        deckFile.setAssociatedDeck(Deck.createNew(deckFile.getName(), deckFile.getFilepath()));
+    }
 
-            deckFile.setAssociatedDeck(Deck.fromParsedDeckFile(
-                    deckFile.getName(), deckFile.getFilepath(), description, tags, flashCards));
-        } catch (FileNotFoundException e) {
+    static void reportFailedParse(final FFDeckFile deckFile, final Exception e) {
+        if (e instanceof InvalidDeckFileFormatException formatException)
+            ExceptionMessenger.deliver(formatException);
+        else
             ExceptionMessenger.deliver(
                     "Failed to read from file: " + deckFile.getFilepath(), false,
                     InvalidDeckFileFormatException.CONSEQUENCE_DECK_FILE_COULD_NOT_BE_PARSED
             );
-
-            deckFile.setAssociatedDeck(Deck.createNew(deckFile.getName(), deckFile.getFilepath()));
-        } catch (InvalidDeckFileFormatException e) {
-            ExceptionMessenger.deliver(e);
-
-            deckFile.setAssociatedDeck(Deck.createNew(deckFile.getName(), deckFile.getFilepath()));
-        }
     }
 
-    private static String parseDescription(String l, FFDeckFile deckFile) throws InvalidDeckFileFormatException {
+    private static String parseDescription(String l, String filepath) throws InvalidDeckFileFormatException {
         if (l.startsWith(KEYWORD_DESCRIPTION + Settings.SETTING_SEPARATOR))
             return l.substring((KEYWORD_DESCRIPTION + Settings.SETTING_SEPARATOR).length());
         else
-            throw InvalidDeckFileFormatException.descriptionImproperlyFormatted(deckFile.getFilepath());
+            throw InvalidDeckFileFormatException.descriptionImproperlyFormatted(filepath);
     }
 
-    private static Set<String> parseTags(String l, FFDeckFile deckFile) throws InvalidDeckFileFormatException {
+    private static Set<String> parseTags(String l, String filepath) throws InvalidDeckFileFormatException {
         if (l.startsWith(KEYWORD_TAGS + Settings.SETTING_SEPARATOR)) {
             String tagString = l.substring((KEYWORD_TAGS + Settings.SETTING_SEPARATOR).length());
 
@@ -76,79 +135,155 @@ public class DeckFileParser {
 
             return tags;
         } else
-            throw InvalidDeckFileFormatException.tagsImproperlyFormatted(deckFile.getFilepath());
+            throw InvalidDeckFileFormatException.tagsImproperlyFormatted(filepath);
     }
 
-    private static Map<String, FlashCard> parseFlashCards(List<String> lines, FFDeckFile deckFile) throws InvalidDeckFileFormatException {
-        if (lines.get(FLASH_CARDS_INDEX).startsWith(KEYWORD_FLASH_CARDS + Settings.SETTING_SEPARATOR)) {
-            Map<String, FlashCard> flashCards = new HashMap<>();
-
-            for (int i = FLASH_CARDS_INDEX + 1; i < lines.size(); i++) {
-                String l = lines.get(i).trim();
-
-                if (l.equals(EMPTY))
-                    break;
-
-                String[] fields = l.split(FIELD_SEPARATOR);
-
-                if (fields.length == NUM_FIELDS)
-                    flashCards.put(fields[CLUE], parseFlashCard(fields, false));
-                // so that deck files from pre-0.2 don't break on startup
-                else if (fields.length == NUM_FIELDS_OLD)
-                    flashCards.put(fields[CLUE], parseFlashCard(fields, true));
-                else
-                    throw InvalidDeckFileFormatException.flashCardsImproperlyFormatted(deckFile.getFilepath());
+    private static ParsedFlashCards parseFlashCards(final LineCursor cursor, final String filepath)
+            throws IOException, InvalidDeckFileFormatException {
+        final Map<String, FlashCard> flashCards = new HashMap<>();
+        boolean hasOldEncoding = false;
+        // field boundaries of the current line; reused for every card
+        final int[] starts = new int[NUM_FIELDS], ends = new int[NUM_FIELDS];
+        final Map<Long, LocalDate> dates = new HashMap<>();
+
+        while (cursor.nextLine()) {
+            cursor.trimLine();
+
+            if (cursor.isLineEmpty())
+                break;
+
+            final int numFields = cursor.splitLine(FIELD_SEPARATOR_CHAR, starts, ends);
+
+            try {
+                if (numFields == NUM_FIELDS || numFields == NUM_FIELDS_OLD) {
+                    // so that deck files from pre-0.2 don't break on startup
+                    final FlashCard flashCard = parseFlashCard(cursor, starts, ends,
+                            numFields == NUM_FIELDS_OLD, dates);
+                    flashCards.put(flashCard.getClue(), flashCard);
+                    hasOldEncoding |= numFields == NUM_FIELDS_OLD;
+                } else
+                    throw InvalidDeckFileFormatException.flashCardsImproperlyFormatted(filepath);
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw InvalidDeckFileFormatException.flashCardsImproperlyFormatted(filepath);
             }
+        }
 
-            return flashCards;
-        } else
-            throw InvalidDeckFileFormatException.flashCardsImproperlyFormatted(deckFile.getFilepath());
+        return new ParsedFlashCards(flashCards, hasOldEncoding);
     }
 
-    private static FlashCard parseFlashCard(final String[] fields, final boolean oldEncoding) {
-        final String clue = fields[CLUE], answer = fields[ANSWER];
-        boolean introduced = Boolean.parseBoolean(fields[INTRODUCED]);
+    private static FlashCard parseFlashCard(
+            final LineCursor cursor, final int[] starts, final int[] ends,
+            final boolean oldEncoding, final Map<Long, LocalDate> dates
+    ) {
+        final String clue = cursor.field(starts[CLUE], ends[CLUE]),
+                answer = cursor.field(starts[ANSWER], ends[ANSWER]);
+        final boolean introduced = cursor.fieldEqualsIgnoreCase(
+                starts[INTRODUCED], ends[INTRODUCED], Boolean.TRUE.toString());
 
-        final String[] date = fields[DUE].split(DATE_SEPARATOR);
-        final LocalDate due = LocalDate.of(Integer.parseInt(date[YEAR]),
-                Integer.parseInt(date[MONTH]), Integer.parseInt(date[DAY]));
+        final LocalDate due = parseDate(cursor, starts[DUE], ends[DUE], dates);
 
-        final Pot pot = Pot.valueOf(fields[POT]);
-        final int potCounter = Integer.parseInt(fields[POT_COUNTER]);
+        final Pot pot = parsePot(cursor, starts[POT], ends[POT]);
+        final int potCounter = cursor.parseInt(starts[POT_COUNTER], ends[POT_COUNTER]);
 
         if (oldEncoding)
             return FlashCard.fromParsedDeckFile(clue, answer,
                     introduced, due, pot, potCounter,
                     0, 0, FlashCard.generateNewCode());
 
-        final int CORRECT = 0, ATTEMPTED = 1, NUMERATOR_AND_DENOMINATOR = 2;
-        final String[] record = fields[RECORD].split(RECORD_SEPARATOR);
+        final int recordStart = starts[RECORD], recordEnd = ends[RECORD],
+                recordSeparator = cursor.indexOf(RECORD_SEPARATOR_CHAR, recordStart, recordEnd);
         final int correctInTests, attemptedInTests;
 
-        if (record.length != NUMERATOR_AND_DENOMINATOR) {
+        if (recordSeparator == -1 || recordSeparator + 1 == recordEnd ||
+                cursor.indexOf(RECORD_SEPARATOR_CHAR, recordSeparator + 1, recordEnd) != -1) {
             correctInTests = 0;
             attemptedInTests = 0;
         } else {
-            correctInTests = Integer.parseInt(record[CORRECT]);
-            attemptedInTests = Integer.parseInt(record[ATTEMPTED]);
+            correctInTests = cursor.parseInt(recordStart, recordSeparator);
+            attemptedInTests = cursor.parseInt(recordSeparator + 1, recordEnd);
         }
 
-        final String code = fields[CODE];
+        final String code = cursor.field(starts[CODE], ends[CODE]);
 
         return FlashCard.fromParsedDeckFile(clue, answer,
                 introduced, due, pot, potCounter,
                 correctInTests, attemptedInTests, code);
     }
 
+    private static LocalDate parseDate(
+            final LineCursor cursor, final int start, final int end,
+            final Map<Long, LocalDate> dates
+    ) {
+        final int afterDay = cursor.indexOf(DATE_SEPARATOR_CHAR, start, end);
+        final int afterMonth = afterDay == -1 ? -1
+                : cursor.indexOf(DATE_SEPARATOR_CHAR, afterDay + 1, end);
+
+        if (afterMonth == -1)
+            throw new NumberFormatException();
+
+        final int afterYear = cursor.indexOf(DATE_SEPARATOR_CHAR, afterMonth + 1, end);
+
+        final int day = cursor.parseInt(start, afterDay),
+                month = cursor.parseInt(afterDay + 1, afterMonth),
+                year = cursor.parseInt(afterMonth + 1, afterYear == -1 ? end : afterYear);
+
+        if (month < 1 || month > 12 || day < 1 || day > 31 || year < 0)
+            return LocalDate.of(year, month, day);
+
+        // cards share a handful of due dates, so one instance is kept per date
+        // a long so that no valid year can spill into the sign bit
+        final long key = ((long) year << 9) | (month << 5) | day;
+        LocalDate date = dates.get(key);
+
+        if (date == null) {
+            date = LocalDate.of(year, month, day);
+            dates.put(key, date);
+        }
+
+        return date;
+    }
+
+    private static Pot parsePot(final LineCursor cursor, final int start, final int end) {
+        for (Pot pot : POTS)
+            if (cursor.fieldEquals(start, end, pot.name()))
+                return pot;
+
+        throw new IllegalArgumentException("No pot named " + cursor.field(start, end));
+    }
+
+    // a clue or answer holding a field separator or a line break would not read back from a text deck file
+    public static boolean isStorableField(final String field) {
+        return field.indexOf(FIELD_SEPARATOR_CHAR) < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0;
+    }
+
     public static void saveToFile(String filepath, String description,
                                   Set<String> tags, Map<String, FlashCard> flashCards) throws IOException {
-        String dir = filepath.substring(0, filepath.lastIndexOf(File.separator));
-        File dirLocation = new File(dir);
+        // decks keep the format their file is already in
+        saveToFile(filepath, description, tags, flashCards, DeckFileFormat.detect(filepath));
+    }
+
+    public static void saveToFile(String filepath, String description, Set<String> tags,
+                                  Map<String, FlashCard> flashCards, DeckFileFormat format) throws IOException {
+        final FileWriteBatch batch = new FileWriteBatch();
+        saveToFile(filepath, description, tags, flashCards, format, batch);
+        batch.commit();
+    }
+
+    // the deck file is only replaced once the batch is committed
+    public static void saveToFile(String filepath, String description, Set<String> tags,
+                                  Map<String, FlashCard> flashCards, DeckFileFormat format,
+                                  FileWriteBatch batch) throws IOException {
+        switch (format) {
+            case BINARY -> BinaryDeckFileParser.saveToFile(filepath, description, tags, flashCards, batch);
+            case TEXT -> batch.stage(filepath, x -> saveAsText(x, description, tags, flashCards));
+        }
 
-        if (!dirLocation.exists() && !dirLocation.mkdirs())
-            throw new IOException();
+        batch.afterCommit(() -> DeckSummaryIndex.record(filepath, tags, flashCards.values()));
+    }
 
-        BufferedWriter bw = new BufferedWriter(new FileWriter(filepath, false));
+    private static void saveAsText(Path target, String description,
+                                   Set<String> tags, Map<String, FlashCard> flashCards) throws IOException {
+        BufferedWriter bw = new BufferedWriter(new FileWriter(target.toFile(), false));
 
         StringBuilder sb = new StringBuilder();
         for (String tag : tags) {
@@ -189,4 +324,197 @@ public class DeckFileParser {
                 date.getMonthValue() + DATE_SEPARATOR + date.getYear();
 
     }
+
+    // reads a deck file line by line into one reusable buffer
+    private static class LineCursor {
+        private static final int END_OF_INPUT = -1, BUFFER_SIZE = 8192;
+
+        private final Reader reader;
+        private char[] buffer;
+        private int position, limit;
+        private int lineStart, lineEnd;
+        private boolean skipLineFeed, exhausted;
+
+        private LineCursor(final Reader reader) {
+            this.reader = reader;
+            this.buffer = new char[BUFFER_SIZE];
+        }
+
+        // same line terminators as BufferedReader: \n, \r or \r\n
+        private boolean nextLine() throws IOException {
+            int scan = position;
+
+            while (true) {
+                if (scan == limit) {
+                    final int scanned = scan - position;
+
+                    if (!fill())
+                        break;
+
+                    scan = position + scanned;
+                    continue;
+                }
+
+                final char c = buffer[scan];
+
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+
+                    if (c == '\n') {
+                        position++;
+                        scan++;
+                        continue;
+                    }
+                }
+
+                if (c == '\n' || c == '\r') {
+                    lineStart = position;
+                    lineEnd = scan;
+                    position = scan + 1;
+                    skipLineFeed = c == '\r';
+                    return true;
+                }
+
+                scan++;
+            }
+
+            if (position == limit)
+                return false;
+
+            // final line without a terminator
+            lineStart = position;
+            lineEnd = limit;
+            position = limit;
+            return true;
+        }
+
+        // moves the unread characters to the front, growing for long lines
+        private boolean fill() throws IOException {
+            if (exhausted)
+                return false;
+
+            final int unread = limit - position;
+
+            if (unread == buffer.length)
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+
+            System.arraycopy(buffer, position, buffer, 0, unread);
+            position = 0;
+            limit = unread;
+
+            final int read = reader.read(buffer, limit, buffer.length - limit);
+
+            if (read == END_OF_INPUT) {
+                exhausted = true;
+                return false;
+            }
+
+            limit += read;
+            return true;
+        }
+
+        private String lineAsString() {
+            return new String(buffer, lineStart, lineEnd - lineStart);
+        }
+
+        private void trimLine() {
+            while (lineStart < lineEnd && buffer[lineStart] <= ' ')
+                lineStart++;
+            while (lineEnd > lineStart && buffer[lineEnd - 1] <= ' ')
+                lineEnd--;
+        }
+
+        private boolean isLineEmpty() {
+            return lineStart == lineEnd;
+        }
+
+        // mirrors String.split: trailing empty fields are not counted
+        private int splitLine(final char separator, final int[] starts, final int[] ends) {
+            int field = 0, numFields = 0, fieldStart = lineStart;
+
+            for (int i = lineStart; i <= lineEnd; i++) {
+                if (i == lineEnd || buffer[i] == separator) {
+                    if (field < starts.length) {
+                        starts[field] = fieldStart;
+                        ends[field] = i;
+                    }
+
+                    field++;
+
+                    if (i > fieldStart)
+                        numFields = field;
+
+                    fieldStart = i + 1;
+                }
+            }
+
+            return numFields;
+        }
+
+        private String field(final int start, final int end) {
+            return new String(buffer, start, end - start);
+        }
+
+        private int indexOf(final char c, final int start, final int end) {
+            for (int i = start; i < end; i++)
+                if (buffer[i] == c)
+                    return i;
+
+            return -1;
+        }
+
+        private boolean fieldEquals(final int start, final int end, final String s) {
+            if (end - start != s.length())
+                return false;
+
+            for (int i = 0; i < s.length(); i++)
+                if (buffer[start + i] != s.charAt(i))
+                    return false;
+
+            return true;
+        }
+
+        private boolean fieldEqualsIgnoreCase(final int start, final int end, final String s) {
+            if (end - start != s.length())
+                return false;
+
+            for (int i = 0; i < s.length(); i++)
+                if (Character.toLowerCase(buffer[start + i]) != Character.toLowerCase(s.charAt(i)))
+                    return false;
+
+            return true;
+        }
+
+        private int parseInt(final int start, final int end) {
+            if (start >= end)
+                throw new NumberFormatException();
+
+            final boolean negative = buffer[start] == '-';
+            int i = negative || buffer[start] == '+' ? start + 1 : start;
+
+            if (i == end)
+                throw new NumberFormatException();
+
+            long value = 0;
+
+            for (; i < end; i++) {
+                final int digit = buffer[i] - '0';
+
+                if (digit < 0 || digit > 9)
+                    throw new NumberFormatException();
+
+                value = value * 10 + digit;
+
+                if (value > Integer.MAX_VALUE + 1L)
+                    throw new NumberFormatException();
+            }
+
+            value = negative ? -value : value;
+
+            if (value > Integer.MAX_VALUE)
+                throw new NumberFormatException();
+
+            return (int) value;
+        }
+    }
 }
@@ -0,0 +1,123 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.DeckSummary;
+import com.redsquare.flashfluency.logic.FlashCard;
+import com.redsquare.flashfluency.logic.Pot;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// append-only log of card state changes that is replayed over the deck file it sits next to
+public class DeckJournal {
+    public static final String JOURNAL_EXTENSION = ".journal";
+
+    private static final String FIELD_SEPARATOR = ";", RECORD_SEPARATOR = "/";
+    private static final int CODE = 0, INTRODUCED = 1, DUE = 2, POT = 3,
+            POT_COUNTER = 4, RECORD = 5, NUM_FIELDS = 6;
+
+    // past this many entries the journal is folded back into the deck file
+    private static final int COMPACTION_THRESHOLD = 2048;
+
+    public static void append(
+            final String filepath, final List<String> entries, final DeckSummary summary
+    ) throws IOException {
+        if (!entries.isEmpty()) {
+            try (BufferedWriter bw = Files.newBufferedWriter(journalPath(filepath),
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String entry : entries) {
+                    bw.write(entry);
+                    bw.newLine();
+                }
+            }
+        }
+
+        DeckSummaryIndex.record(filepath, summary);
+    }
+
+    public static boolean needsCompaction(final int entries) {
+        return entries > COMPACTION_THRESHOLD;
+    }
+
+    // the number of entries in the journal, which the deck file does not yet hold
+    public static int replay(final String filepath, final Map<String, FlashCard> flashCards)
+            throws IOException {
+        final Path journal = journalPath(filepath);
+
+        if (!Files.exists(journal))
+            return 0;
+
+        final Map<String, FlashCard> byCode = new HashMap<>();
+        flashCards.values().forEach(x -> byCode.put(x.getCode(), x));
+
+        int entries = 0;
+
+        try (BufferedReader br = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String l;
+
+            while ((l = br.readLine()) != null) {
+                entries++;
+                final String[] fields = l.split(FIELD_SEPARATOR);
+
+                // cards that have since been removed and a line torn by a crash are skipped
+                if (fields.length != NUM_FIELDS || !byCode.containsKey(fields[CODE]))
+                    continue;
+
+                try {
+                    apply(byCode.get(fields[CODE]), fields);
+                } catch (IllegalArgumentException | DateTimeException ignored) {
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    // called once the deck file holds everything the journal recorded
+    public static void discard(final String filepath) throws IOException {
+        FileIOHelper.deleteFileFootprint(journalFilepath(filepath));
+        DeckSummaryIndex.journalDiscarded(filepath);
+    }
+
+    public static void move(final String from, final String to) throws IOException {
+        if (Files.exists(journalPath(from)))
+            FileIOHelper.moveFile(journalFilepath(from), journalFilepath(to));
+    }
+
+    public static String journalFilepath(final String filepath) {
+        return filepath + JOURNAL_EXTENSION;
+    }
+
+    private static Path journalPath(final String filepath) {
+        return Path.of(journalFilepath(filepath));
+    }
+
+    public static String encode(final FlashCard flashCard) {
+        return flashCard.getCode() + FIELD_SEPARATOR + flashCard.isIntroduced() +
+                FIELD_SEPARATOR + flashCard.getDue() + FIELD_SEPARATOR +
+                flashCard.getPot() + FIELD_SEPARATOR + flashCard.getPotCounter() +
+                FIELD_SEPARATOR + flashCard.getCorrectInTests() + RECORD_SEPARATOR +
+                flashCard.getAttemptedInTests();
+    }
+
+    private static void apply(final FlashCard flashCard, final String[] fields) {
+        final String[] record = fields[RECORD].split(RECORD_SEPARATOR);
+
+        if (record.length != 2)
+            throw new IllegalArgumentException();
+
+        flashCard.restoreState(Boolean.parseBoolean(fields[INTRODUCED]),
+                LocalDate.parse(fields[DUE]), Pot.valueOf(fields[POT]),
+                Integer.parseInt(fields[POT_COUNTER]),
+                Integer.parseInt(record[0]), Integer.parseInt(record[1]));
+    }
+}
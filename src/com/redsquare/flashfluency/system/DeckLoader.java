@@ -0,0 +1,67 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.Deck;
+import com.redsquare.flashfluency.system.exceptions.InvalidDeckFileFormatException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DeckLoader {
+    private static final int MAX_THREADS = 8;
+
+    public static void loadAll(final FFDirectory root) {
+        final List<FFDeckFile> unloaded = new ArrayList<>();
+        root.getUnloadedDecks(unloaded);
+
+        if (unloaded.isEmpty())
+            return;
+
+        final ExecutorService executor = newWorkerPool(unloaded.size());
+
+        try {
+            final List<Future<Deck>> parsed = new ArrayList<>();
+
+            // paths are resolved here so that workers never walk the tree
+            for (FFDeckFile deckFile : unloaded) {
+                final String name = deckFile.getName(), filepath = deckFile.getFilepath();
+                parsed.add(executor.submit(() -> DeckFileParser.read(name, filepath)));
+            }
+
+            // results and errors are applied in tree order on this thread
+            for (int i = 0; i < unloaded.size(); i++)
+                collect(unloaded.get(i), parsed.get(i));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // for preloading and importing alike: no more threads than there are decks or cores
+    static ExecutorService newWorkerPool(final int tasks) {
+        final int threads = Math.max(1, Math.min(MAX_THREADS,
+                Math.min(tasks, Runtime.getRuntime().availableProcessors())));
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    private static void collect(final FFDeckFile deckFile, final Future<Deck> parsed) {
+        try {
+            deckFile.setAssociatedDeck(parsed.get());
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof IOException || cause instanceof InvalidDeckFileFormatException)
+                DeckFileParser.handleFailedParse(deckFile, (Exception) cause);
+            else if (cause instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            else
+                throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            DeckFileParser.parse(deckFile);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.redsquare.flashfluency.system;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// every deck in the library by name, so that a deck can be gone to from anywhere
+// without knowing where it is; moving a deck keeps its name, so only creation and deletion count
+public class DeckNameIndex {
+    private static final Map<String, List<FFDeckFile>> DECKS = new HashMap<>();
+
+    static void register(final FFDeckFile deckFile) {
+        DECKS.computeIfAbsent(deckFile.getName(), x -> new ArrayList<>(1)).add(deckFile);
+    }
+
+    static void unregister(final FFDeckFile deckFile) {
+        final List<FFDeckFile> named = DECKS.get(deckFile.getName());
+
+        if (named != null && named.remove(deckFile) && named.isEmpty())
+            DECKS.remove(deckFile.getName());
+    }
+
+    static void clear() {
+        DECKS.clear();
+    }
+
+    public static List<FFDeckFile> getDecksNamed(final String name) {
+        return new ArrayList<>(DECKS.getOrDefault(name, List.of()));
+    }
+}
@@ -0,0 +1,162 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.DeckSummary;
+import com.redsquare.flashfluency.logic.FlashCard;
+import com.redsquare.flashfluency.logic.Pot;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class DeckSummaryIndex {
+    private static final String FIELD_SEPARATOR = ";", LIST_SEPARATOR = ",",
+            PAIR_SEPARATOR = "/", EMPTY = "";
+
+    // field indices; the filepath is last so that it may contain any character
+    private static final int MODIFIED = 0, JOURNAL = 1, CARDS = 2, SCORE = 3, POTS = 4,
+            DUE = 5, TAGS = 6, FILEPATH = 7, NUM_FIELDS = 8;
+
+    private static final Map<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    // reviews are appended to the journal without touching the deck file,
+    // so its length counts towards freshness as well
+    private record Entry(long modified, long journalLength, DeckSummary summary) {}
+
+    public static void load(final Path path) {
+        ENTRIES.clear();
+
+        if (!path.toFile().exists())
+            return;
+
+        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            br.lines().forEach(DeckSummaryIndex::parseLine);
+        } catch (IOException | UncheckedIOException e) {
+            // the index is only a cache; without it decks are parsed in full
+            ENTRIES.clear();
+        }
+    }
+
+    public static void save(final Path path) throws IOException {
+        try (BufferedWriter bw = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            final List<String> filepaths = new ArrayList<>(ENTRIES.keySet());
+            filepaths.sort(Comparator.naturalOrder());
+
+            for (String filepath : filepaths) {
+                // decks that were deleted since they were indexed are dropped
+                if (!new File(filepath).exists())
+                    continue;
+
+                bw.write(encodeLine(filepath, ENTRIES.get(filepath)));
+                bw.newLine();
+            }
+        }
+    }
+
+    public static void record(final String filepath, final Set<String> tags,
+                              final Collection<FlashCard> flashCards) {
+        record(filepath, DeckSummary.of(tags, flashCards));
+    }
+
+    public static void record(final String filepath, final DeckSummary summary) {
+        final long modified = new File(filepath).lastModified();
+
+        if (modified > 0L)
+            ENTRIES.put(filepath, new Entry(modified, journalLength(filepath), summary));
+    }
+
+    // the summary was taken from the full save that made the journal redundant
+    public static void journalDiscarded(final String filepath) {
+        ENTRIES.computeIfPresent(filepath,
+                (key, entry) -> new Entry(entry.modified(), 0L, entry.summary()));
+    }
+
+    public static void move(final String from, final String to) {
+        final Entry entry = ENTRIES.remove(from);
+
+        if (entry != null)
+            record(to, entry.summary());
+    }
+
+    // empty if the deck was never indexed or its file or journal has changed since
+    public static Optional<DeckSummary> get(final String filepath) {
+        if (filepath == null)
+            return Optional.empty();
+
+        final Entry entry = ENTRIES.get(filepath);
+
+        if (entry == null || entry.modified() != new File(filepath).lastModified() ||
+                entry.journalLength() != journalLength(filepath))
+            return Optional.empty();
+
+        return Optional.of(entry.summary());
+    }
+
+    private static long journalLength(final String filepath) {
+        // zero when there is no journal
+        return new File(DeckJournal.journalFilepath(filepath)).length();
+    }
+
+    private static void parseLine(final String line) {
+        final String[] fields = line.split(FIELD_SEPARATOR, NUM_FIELDS);
+
+        if (fields.length != NUM_FIELDS)
+            return;
+
+        try {
+            final int[] potHistogram = new int[Pot.values().length];
+            final String[] pots = fields[POTS].split(LIST_SEPARATOR);
+
+            for (int i = 0; i < pots.length && i < potHistogram.length; i++)
+                potHistogram[i] = Integer.parseInt(pots[i]);
+
+            final SortedMap<Long, Integer> dueHistogram = new TreeMap<>();
+
+            for (String pair : fields[DUE].split(LIST_SEPARATOR)) {
+                if (pair.equals(EMPTY))
+                    continue;
+
+                final String[] dayAndCount = pair.split(PAIR_SEPARATOR);
+                dueHistogram.put(Long.parseLong(dayAndCount[0]),
+                        Integer.parseInt(dayAndCount[1]));
+            }
+
+            final Set<String> tags = new HashSet<>(Arrays.asList(fields[TAGS].split(LIST_SEPARATOR)));
+            tags.remove(EMPTY);
+
+            final DeckSummary summary = DeckSummary.fromParsedIndex(
+                    Integer.parseInt(fields[CARDS]), Integer.parseInt(fields[SCORE]),
+                    potHistogram, tags, dueHistogram);
+
+            ENTRIES.put(fields[FILEPATH], new Entry(Long.parseLong(fields[MODIFIED]),
+                    Long.parseLong(fields[JOURNAL]), summary));
+        } catch (RuntimeException e) {
+            // a malformed entry is treated as missing, so the deck is parsed in full
+        }
+    }
+
+    private static String encodeLine(final String filepath, final Entry entry) {
+        final DeckSummary summary = entry.summary();
+
+        final StringJoiner pots = new StringJoiner(LIST_SEPARATOR);
+        for (int count : summary.getPotHistogram())
+            pots.add(String.valueOf(count));
+
+        final StringJoiner due = new StringJoiner(LIST_SEPARATOR);
+        summary.getDueHistogram().forEach(
+                (day, count) -> due.add(day + PAIR_SEPARATOR + count));
+
+        return entry.modified() + FIELD_SEPARATOR + entry.journalLength() +
+                FIELD_SEPARATOR + summary.getNumOfFlashCards() +
+                FIELD_SEPARATOR + summary.getScoreTotal() + FIELD_SEPARATOR + pots +
+                FIELD_SEPARATOR + due + FIELD_SEPARATOR +
+                String.join(LIST_SEPARATOR, summary.getTags()) +
+                FIELD_SEPARATOR + filepath;
+    }
+}
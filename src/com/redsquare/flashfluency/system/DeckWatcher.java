@@ -0,0 +1,168 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.cli.ExceptionMessenger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// picks up deck files that were edited outside the program while it is running
+public class DeckWatcher {
+    // an editor or script usually touches a file several times in quick succession
+    private static final long DEBOUNCE_MILLIS = 300;
+
+    private static WatchService watchService;
+    private static Thread thread;
+
+    // settled deck files, handed from the watcher thread to the interactive thread
+    private static final Set<Path> CHANGED = ConcurrentHashMap.newKeySet();
+
+    public static synchronized void start(final String rootFilepath) {
+        if (thread != null)
+            return;
+
+        try {
+            final Path root = Path.of(rootFilepath).toAbsolutePath().normalize();
+            final WatchService service = FileSystems.getDefault().newWatchService();
+            final Map<WatchKey, Path> directories = new HashMap<>();
+
+            registerAll(service, root, directories);
+
+            watchService = service;
+            thread = new Thread(() -> watch(service, directories), "deck-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        } catch (IOException e) {
+            ExceptionMessenger.deliver("The root directory \"" + rootFilepath +
+                    "\" could not be watched for changes.", false,
+                    "Deck files edited outside the program will not be reloaded.");
+        }
+    }
+
+    public static synchronized void stop() {
+        if (thread == null)
+            return;
+
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+        }
+
+        watchService = null;
+        thread = null;
+        CHANGED.clear();
+    }
+
+    // called from the interactive thread, where the deck tree is safe to touch
+    public static void applyChanges(final FFDirectory root) {
+        if (CHANGED.isEmpty())
+            return;
+
+        // our own queued writes land first so that they are not mistaken for outside edits
+        BackgroundWriter.flush();
+
+        final List<FFDeckFile> decks = new ArrayList<>();
+        root.getDecks(decks);
+
+        final Map<Path, FFDeckFile> byPath = new HashMap<>();
+        decks.forEach(x -> byPath.put(Path.of(x.getFilepath()).toAbsolutePath().normalize(), x));
+
+        final Iterator<Path> changed = CHANGED.iterator();
+
+        while (changed.hasNext()) {
+            final FFDeckFile deckFile = byPath.get(changed.next());
+            changed.remove();
+
+            // the index holds the modification time of the last read or write by the program
+            if (deckFile != null && DeckSummaryIndex.get(deckFile.getFilepath()).isEmpty())
+                deckFile.reload();
+        }
+    }
+
+    private static void watch(final WatchService service, final Map<WatchKey, Path> directories) {
+        final Map<Path, Long> pending = new HashMap<>();
+
+        try {
+            while (true) {
+                final WatchKey key = pending.isEmpty() ? service.take()
+                        : service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (key != null) {
+                    collect(service, key, directories, pending);
+
+                    if (!key.reset())
+                        directories.remove(key);
+                }
+
+                // files that have been quiet for the whole debounce period are handed over
+                final long now = System.nanoTime();
+
+                pending.entrySet().removeIf(x -> {
+                    if (TimeUnit.NANOSECONDS.toMillis(now - x.getValue()) < DEBOUNCE_MILLIS)
+                        return false;
+
+                    CHANGED.add(x.getKey());
+                    return true;
+                });
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // stopped
+        }
+    }
+
+    private static void collect(
+            final WatchService service, final WatchKey key,
+            final Map<WatchKey, Path> directories, final Map<Path, Long> pending
+    ) {
+        final Path directory = directories.get(key);
+
+        if (directory == null)
+            return;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                continue;
+
+            final Path child = directory.resolve((Path) event.context());
+
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                try {
+                    registerAll(service, child, directories);
+                } catch (IOException ignored) {
+                }
+            } else if (child.getFileName().toString().endsWith(Settings.DECK_FILE_EXTENSION))
+                pending.put(child, System.nanoTime());
+        }
+    }
+
+    private static void registerAll(
+            final WatchService service, final Path root, final Map<WatchKey, Path> directories
+    ) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs)
+                    throws IOException {
+                directories.put(dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY), dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -2,71 +2,158 @@ package com.redsquare.flashfluency.system;
 
 import com.redsquare.flashfluency.system.exceptions.InvalidDirectoryFormatException;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
 public class DirectoryParser {
     public static final String DIR_MARKER = "->", SEPARATOR = ",",
             SCOPE_OPENER = "[", SCOPE_CLOSER = "]", NAME_BOUND = "\"",
             NEW_LINE = "\n", TAB = "\t";
 
+    private static final char NAME_BOUND_CHAR = '"', SEPARATOR_CHAR = ',',
+            SCOPE_CLOSER_CHAR = ']';
+    private static final int END_OF_INPUT = -1, BUFFER_SIZE = 8192,
+            ERROR_CONTEXT_LENGTH = 40;
+
     public static void parse(final String l, final FFDirectory root) throws InvalidDirectoryFormatException {
-        String shouldStartWith = NAME_BOUND + Settings.ROOT_CODE +
+        try {
+            parse(new StringReader(l), root);
+        } catch (IOException e) {
+            // a StringReader cannot fail to read
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static void parse(final Reader reader, final FFDirectory root)
+            throws InvalidDirectoryFormatException, IOException {
+        final Cursor cursor = new Cursor(reader);
+        final String shouldStartWith = NAME_BOUND + Settings.ROOT_CODE +
                 NAME_BOUND + DIR_MARKER + SCOPE_OPENER;
 
-        if (!l.startsWith(shouldStartWith))
+        cursor.skipWhitespace();
+
+        if (!cursor.consume(shouldStartWith))
             throw InvalidDirectoryFormatException.rootLabelMissing();
 
         FFDirectory scope = root;
-        String toProcess = l.substring(shouldStartWith.length());
-        StringBuilder processed = new StringBuilder(shouldStartWith);
-
-        while (!toProcess.equals("") && scope != null) {
-            if (toProcess.startsWith(NAME_BOUND)) {
-                String name = extractName(toProcess.substring(1));
+        final StringBuilder name = new StringBuilder();
 
-                toProcess = process(toProcess,
-                        NAME_BOUND + name + NAME_BOUND, processed);
+        while (scope != null) {
+            cursor.skipWhitespace();
+            final int c = cursor.peek();
 
-                if (toProcess.startsWith(DIR_MARKER + SCOPE_OPENER)) {
-                    scope = scope.addChildDirectoryR(name);
-                    toProcess = process(toProcess,
-                            DIR_MARKER + SCOPE_OPENER, processed);
-                } else if (toProcess.startsWith(SEPARATOR)) {
-                    FFDeckFile deckFile = scope.addDeckR(name);
-                    DeckFileParser.parse(deckFile);
+            if (c == END_OF_INPUT)
+                break;
 
-                    toProcess = process(toProcess, SEPARATOR, processed);
-                } else if (toProcess.startsWith(SCOPE_CLOSER)) {
-                    FFDeckFile deckFile = scope.addDeckR(name);
-                    DeckFileParser.parse(deckFile);
+            if (c == NAME_BOUND_CHAR) {
+                cursor.next();
+                cursor.readName(name);
+                cursor.skipWhitespace();
 
+                if (cursor.consume(DIR_MARKER + SCOPE_OPENER)) {
+                    scope = scope.addChildDirectoryR(name.toString());
+                } else if (cursor.peek() == SEPARATOR_CHAR) {
+                    scope.addDeckR(name.toString()).markAsUnloaded();
+                    cursor.next();
+                } else if (cursor.peek() == SCOPE_CLOSER_CHAR) {
+                    scope.addDeckR(name.toString()).markAsUnloaded();
                     scope = scope.getParent();
-                    toProcess = process(toProcess, SCOPE_CLOSER, processed);
+                    cursor.next();
                 } else {
-                    throw InvalidDirectoryFormatException.parserQuitPrematurely(toProcess);
+                    throw InvalidDirectoryFormatException.parserQuitPrematurely(cursor.upcoming());
                 }
-            } else if (toProcess.startsWith(SCOPE_CLOSER)) {
+            } else if (c == SCOPE_CLOSER_CHAR) {
                 scope = scope.getParent();
-                toProcess = process(toProcess, SCOPE_CLOSER, processed);
-            } else if (toProcess.startsWith(SEPARATOR)) {
-                toProcess = process(toProcess, SEPARATOR, processed);
+                cursor.next();
+            } else if (c == SEPARATOR_CHAR) {
+                cursor.next();
             } else {
-                throw InvalidDirectoryFormatException.parserQuitPrematurely(toProcess);
+                throw InvalidDirectoryFormatException.parserQuitPrematurely(cursor.upcoming());
             }
         }
     }
 
-    private static String process(String toProcess, String processing, StringBuilder processed) {
-        processed.append(processing);
-        return toProcess.substring(processing.length());
-    }
+    // single forward pass over the mirror with a fixed-size look-ahead buffer
+    private static class Cursor {
+        private final Reader reader;
+        private final char[] buffer;
+        private int position, limit;
+
+        private Cursor(final Reader reader) {
+            this.reader = reader;
+            this.buffer = new char[BUFFER_SIZE];
+            this.position = 0;
+            this.limit = 0;
+        }
+
+        private boolean ensure(final int count) throws IOException {
+            if (limit - position >= count)
+                return true;
+
+            // compact the unread characters to the front and refill
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+
+            while (limit < count) {
+                final int read = reader.read(buffer, limit, buffer.length - limit);
+
+                if (read == END_OF_INPUT)
+                    return false;
+
+                limit += read;
+            }
+
+            return true;
+        }
 
-    private static String extractName(final String l) throws InvalidDirectoryFormatException {
-        int nameBoundIndex = l.indexOf(NAME_BOUND);
+        private int peek() throws IOException {
+            return ensure(1) ? buffer[position] : END_OF_INPUT;
+        }
 
-        if (nameBoundIndex == -1)
-            throw InvalidDirectoryFormatException.unevenNumberOfQuotes();
-        else if (nameBoundIndex == 0)
-            throw InvalidDirectoryFormatException.emptyQuotesName();
+        private int next() throws IOException {
+            return ensure(1) ? buffer[position++] : END_OF_INPUT;
+        }
+
+        private void skipWhitespace() throws IOException {
+            while (ensure(1) && Character.isWhitespace(buffer[position]))
+                position++;
+        }
+
+        private boolean consume(final String expected) throws IOException {
+            if (!ensure(expected.length()))
+                return false;
+
+            for (int i = 0; i < expected.length(); i++)
+                if (buffer[position + i] != expected.charAt(i))
+                    return false;
+
+            position += expected.length();
+            return true;
+        }
 
-        return l.substring(0, l.indexOf(NAME_BOUND));
+        private void readName(final StringBuilder name) throws IOException, InvalidDirectoryFormatException {
+            name.setLength(0);
+
+            int c = next();
+
+            while (c != NAME_BOUND_CHAR) {
+                if (c == END_OF_INPUT)
+                    throw InvalidDirectoryFormatException.unevenNumberOfQuotes();
+
+                name.append((char) c);
+                c = next();
+            }
+
+            if (name.length() == 0)
+                throw InvalidDirectoryFormatException.emptyQuotesName();
+        }
+
+        private String upcoming() throws IOException {
+            ensure(ERROR_CONTEXT_LENGTH);
+            return new String(buffer, position,
+                    Math.min(ERROR_CONTEXT_LENGTH, limit - position));
+        }
     }
 }
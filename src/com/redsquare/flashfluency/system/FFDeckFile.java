@@ -1,17 +1,40 @@
 package com.redsquare.flashfluency.system;
 
+import com.redsquare.flashfluency.cli.CLIOutput;
 import com.redsquare.flashfluency.cli.ExceptionMessenger;
 import com.redsquare.flashfluency.logic.Deck;
+import com.redsquare.flashfluency.logic.DeckListener;
+import com.redsquare.flashfluency.logic.DeckSummary;
+import com.redsquare.flashfluency.logic.FlashCard;
+import com.redsquare.flashfluency.logic.Pot;
 import com.redsquare.flashfluency.system.exceptions.FFErrorMessages;
+import com.redsquare.flashfluency.system.exceptions.InvalidDeckFileFormatException;
 
+import java.io.File;
 import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class FFDeckFile extends FFFile {
+public class FFDeckFile extends FFFile implements DeckListener {
     private Deck associatedDeck;
+    private final int tagIndexId;
+
+    // location of a deck file that exists on disk but has not been parsed yet
+    private String unloadedFilepath;
+    // moves of the unloaded deck file that the background writer has yet to run
+    private final AtomicInteger pendingMoves;
 
     private FFDeckFile(String name, FFDirectory parent) {
         super(name, parent);
+
+        pendingMoves = new AtomicInteger();
+        tagIndexId = TagIndex.register(this);
+        SearchIndex.register(this);
+        DeckNameIndex.register(this);
     }
 
     public static FFDeckFile create(String name, FFDirectory parent) {
@@ -20,52 +43,251 @@ public class FFDeckFile extends FFFile {
 
     @Override
     public void updateFileSystem() {
-        associatedDeck.updateFilepath(getFilepath());
+        if (associatedDeck != null)
+            associatedDeck.updateFilepath(getFilepath());
+        else if (unloadedFilepath != null && !unloadedFilepath.equals(getFilepath())) {
+            final String from = unloadedFilepath, to = getFilepath();
+            unloadedFilepath = to;
+            pendingMoves.incrementAndGet();
+
+            // queued like the saves of a loaded deck, so that every write to a path lands in order
+            BackgroundWriter.append(to, () -> {
+                try {
+                    moveFootprint(from, to);
+                } finally {
+                    pendingMoves.decrementAndGet();
+                }
+            }, () -> FileIOHelper.deliverFileNotMoved(from, to));
+        }
+    }
+
+    private static void moveFootprint(final String from, final String to) throws IOException {
+        // a deck that was never saved has nothing to move
+        if (!new File(from).exists())
+            return;
+
+        // an update to the file that was cut short is finished where its redo log can find it
+        FileWriteBatch.recover(from);
+        FileIOHelper.moveFile(from, to);
+        // the journal goes first, since the moved index entry is stamped with its length
+        DeckJournal.move(from, to);
+        DeckSummaryIndex.move(from, to);
+    }
+
+    // the unloaded deck file is only at its new path once its queued moves have run
+    private void awaitPendingMoves() {
+        if (pendingMoves.get() > 0)
+            BackgroundWriter.flush();
+    }
+
+    @Override
+    public void delete() {
+        super.delete();
+        TagIndex.unregister(tagIndexId);
+        SearchIndex.unregister(this);
+        DeckNameIndex.unregister(this);
+    }
+
+    @Override
+    protected void deleteFileFootprint(final String filepath) {
+        BackgroundWriter.deleteDeck(filepath);
+    }
+
+    public void markAsUnloaded() {
+        if (associatedDeck != null)
+            associatedDeck.setListener(null);
+
+        associatedDeck = null;
+        unloadedFilepath = getFilepath();
+        invalidateStatistics();
+        TagIndex.invalidate(tagIndexId);
+        SearchIndex.invalidate(this);
+    }
+
+    public DeckFileFormat getFileFormat() {
+        if (isLoaded())
+            return associatedDeck.getFileFormat();
+
+        awaitPendingMoves();
+        return DeckFileFormat.detect(unloadedFilepath);
+    }
+
+    public void convertTo(final DeckFileFormat format) {
+        getAssociatedDeck().saveInBackground(format);
+        CLIOutput.writeConvertedDeck(getName(), format.name().toLowerCase(), getFilepath());
+    }
+
+    // decks that were never loaded are unchanged on disk
+    public boolean isModified() {
+        return isLoaded() && associatedDeck.isModified();
+    }
+
+    // false if the deck could not be staged, which has already been reported
+    public boolean save(final FileWriteBatch batch) {
+        try {
+            associatedDeck.saveToFile(batch);
+            return true;
+        } catch (IOException e) {
+            ExceptionMessenger.deliver(FFErrorMessages.MESSAGE_FAILED_WRITE_TO_DECK_FILE,
+                    false, FFErrorMessages.CONSEQUENCE_DECK_DATA_NOT_SAVED);
+            return false;
+        }
+    }
+
+    // an unloaded deck needs nothing, as it is parsed from the file as it now is when first used
+    public void reload() {
+        if (!isLoaded()) {
+            invalidateStatistics();
+            return;
+        }
+
+        if (associatedDeck.isModified()) {
+            ExceptionMessenger.deliver("The deck file \"" + getFilepath() +
+                    "\" was changed outside the program, but the deck also has unsaved changes.",
+                    false, "The unsaved changes were kept and will overwrite the file when the deck is saved.");
+            return;
+        }
+
+        markAsUnloaded();
+        DeckFileParser.parse(this);
+        CLIOutput.writeReloadedDeck(getName(), getFilepath());
+    }
+
+    public boolean isLoaded() {
+        return associatedDeck != null;
     }
 
     public void setAssociatedDeck(Deck deck) {
+        if (associatedDeck != null)
+            associatedDeck.setListener(null);
+
         associatedDeck = deck;
+        unloadedFilepath = null;
+
+        // the deck as parsed can differ from the summary its totals were counted from
+        deck.setListener(this);
+        invalidateStatistics();
+        TagIndex.invalidate(tagIndexId);
+        SearchIndex.invalidate(this);
     }
 
     public Deck getAssociatedDeck() {
-        if (associatedDeck == null)
-            setAssociatedDeck(Deck.createNew(getName(), getFilepath()));
+        if (associatedDeck == null) {
+            if (unloadedFilepath != null) {
+                awaitPendingMoves();
+                DeckFileParser.parse(this);
+            }
+            else
+                setAssociatedDeck(Deck.createNew(getName(), getFilepath()));
+        }
+
         return associatedDeck;
     }
 
+    // the flash cards as the deck now has them; a deck that is not loaded is read from its file
+    // but not attached, so that its cards are let go once the caller is done with them
+    Collection<FlashCard> readFlashCards() {
+        if (isLoaded())
+            return associatedDeck.getFlashCards();
+        if (unloadedFilepath == null)
+            return List.of();
+
+        awaitPendingMoves();
+
+        try {
+            return DeckFileParser.read(getName(), getFilepath()).getFlashCards();
+        } catch (IOException | InvalidDeckFileFormatException e) {
+            DeckFileParser.reportFailedParse(this, e);
+            return List.of();
+        }
+    }
+
+    // answered from the summary index where possible so the deck is not parsed
+    public DeckSummary getSummary() {
+        if (!isLoaded()) {
+            awaitPendingMoves();
+            final Optional<DeckSummary> indexed = DeckSummaryIndex.get(unloadedFilepath);
+
+            if (indexed.isPresent())
+                return indexed.get();
+        }
+
+        return getAssociatedDeck().summarize();
+    }
+
     @Override
-    public void getDecksWithMatchingTags(
-            final Set<FFDeckFile> hasMatchingTags, final String[] tags
-    ) {
-        final Set<String> tagsInDeck = associatedDeck.getTags();
+    protected SubtreeStatistics countStatistics() {
+        return SubtreeStatistics.ofDeck(getSummary());
+    }
 
-        for (String tag : tags)
-            if (!tagsInDeck.contains(tag))
-                return;
+    @Override
+    public void flashCardAttached(final FlashCard flashCard) {
+        updateStatistics(x -> x.countFlashCard(flashCard.getPot(), flashCard.getDue(), 1));
+        SearchIndex.flashCardAdded(this, flashCard);
+    }
 
-        hasMatchingTags.add(this);
+    @Override
+    public void flashCardDetached(final FlashCard flashCard) {
+        updateStatistics(x -> x.countFlashCard(flashCard.getPot(), flashCard.getDue(), -1));
+        SearchIndex.flashCardRemoved(this, flashCard);
+    }
+
+    @Override
+    public void flashCardContentChanged(final FlashCard flashCard) {
+        SearchIndex.flashCardChanged(this, flashCard);
+    }
+
+    @Override
+    public void flashCardPotChanged(final Pot previousPot, final Pot pot) {
+        updateStatistics(x -> x.changePot(previousPot, pot));
+    }
+
+    @Override
+    public void flashCardDueChanged(final LocalDate previousDue, final LocalDate due) {
+        updateStatistics(x -> x.changeDue(previousDue, due));
+    }
+
+    @Override
+    public void flashCardsCleared() {
+        invalidateStatistics();
+        SearchIndex.invalidate(this);
+    }
+
+    @Override
+    public void tagAdded(final String tag) {
+        TagIndex.tagAdded(tagIndexId, tag);
+    }
+
+    @Override
+    public void tagRemoved(final String tag) {
+        TagIndex.tagRemoved(tagIndexId, tag);
+    }
+
+    public boolean hasSummary() {
+        awaitPendingMoves();
+        return isLoaded() || DeckSummaryIndex.get(unloadedFilepath).isPresent();
     }
 
     @Override
     public void getDecksWithDue(final Set<FFDeckFile> hasDue) {
-        if (associatedDeck.getNumDueFlashCards() > 0)
+        if (getSummary().getNumDueFlashCards() > 0)
             hasDue.add(this);
     }
 
     @Override
-    public String getFileExtension() {
-        return Settings.DECK_FILE_EXTENSION;
+    public void getDecks(final List<FFDeckFile> decks) {
+        decks.add(this);
     }
 
     @Override
-    public String encode(final int depthLevel) {
-        try {
-            getAssociatedDeck().saveToFile();
-        } catch (IOException e) {
-            ExceptionMessenger.deliver(FFErrorMessages.MESSAGE_FAILED_WRITE_TO_DECK_FILE,
-                    false, FFErrorMessages.CONSEQUENCE_DECK_DATA_NOT_SAVED);
-        }
-        return super.encode(depthLevel);
+    public void getUnloadedDecks(final List<FFDeckFile> unloaded) {
+        if (!isLoaded() && unloadedFilepath != null)
+            unloaded.add(this);
+    }
+
+    @Override
+    public String getFileExtension() {
+        return Settings.DECK_FILE_EXTENSION;
     }
 
     @Override
@@ -3,18 +3,27 @@ package com.redsquare.flashfluency.system;
 import com.redsquare.flashfluency.cli.ExceptionMessenger;
 import com.redsquare.flashfluency.system.exceptions.FlashFluencyLogicException;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 public class FFDirectory extends FFFile {
     private final Map<String, FFFile> children;
+    // the children names again, for finding them by how they start or end
+    private final NameTrie prefixes, suffixes;
 
     protected FFDirectory(String name, FFDirectory parent) {
         super(name, parent);
 
         children = new HashMap<>();
+        prefixes = NameTrie.forPrefixes();
+        suffixes = NameTrie.forSuffixes();
     }
 
     public static FFDirectory create(String name, FFDirectory parent) {
@@ -22,9 +31,17 @@ public class FFDirectory extends FFFile {
     }
 
     public static FFDirectory createRoot() {
+        // a new root is a new library, so nothing of the old one may be found through the indexes
+        resetLibraryIndexes();
         return create(Settings.ROOT_CODE, null);
     }
 
+    static void resetLibraryIndexes() {
+        TagIndex.clear();
+        SearchIndex.clear();
+        DeckNameIndex.clear();
+    }
+
     @Override
     public boolean moveTo(final FFDirectory destination) {
         if (this.isAncestorOf(destination)) {
@@ -67,8 +84,19 @@ public class FFDirectory extends FFFile {
             children.get(child).updateFileSystem();
     }
 
+    @Override
+    protected SubtreeStatistics countStatistics() {
+        final SubtreeStatistics statistics = SubtreeStatistics.empty();
+
+        for (FFFile child : children.values())
+            statistics.add(child.getStatistics());
+
+        return statistics;
+    }
+
     public void addDeck(String name) {
-        children.put(name, FFDeckFile.create(name, this));
+        putChild(FFDeckFile.create(name, this));
+        invalidateStatistics();
     }
 
     public FFDeckFile addDeckR(String name) {
@@ -82,7 +110,14 @@ public class FFDirectory extends FFFile {
                 throw FlashFluencyLogicException.directoryAlreadyHasChildOfThisName(
                         child.getName());
 
-            children.put(child.getName(), child);
+            putChild(child);
+
+            // a file that is moved in brings its totals along if they are known
+            if (child.hasStatistics())
+                updateStatistics(x -> x.add(child.getStatistics()));
+            else
+                invalidateStatistics();
+
             return true;
         } catch (FlashFluencyLogicException e) {
             ExceptionMessenger.deliver(e);
@@ -92,7 +127,8 @@ public class FFDirectory extends FFFile {
     }
 
     public void addChildDirectory(String name) {
-        children.put(name, FFDirectory.create(name, this));
+        putChild(FFDirectory.create(name, this));
+        invalidateStatistics();
     }
 
     public FFDirectory addChildDirectoryR(String name) {
@@ -101,7 +137,22 @@ public class FFDirectory extends FFFile {
     }
 
     public void removeChild(String name) {
-        children.remove(name);
+        final FFFile child = children.remove(name);
+
+        if (child != null) {
+            prefixes.remove(name);
+            suffixes.remove(name);
+        }
+
+        // the totals of a directory are only known if those of all its children are
+        if (child != null && hasStatistics())
+            updateStatistics(x -> x.subtract(child.getStatistics()));
+    }
+
+    private void putChild(final FFFile child) {
+        children.put(child.getName(), child);
+        prefixes.add(child.getName());
+        suffixes.add(child.getName());
     }
 
     public boolean isAncestorOf(final FFFile file) {
@@ -125,48 +176,78 @@ public class FFDirectory extends FFFile {
         return children.keySet();
     }
 
-    @Override
-    public void getDecksWithMatchingTags(
-            final Set<FFDeckFile> hasMatchingTags, final String[] tags
-    ) {
-        for (String childName : children.keySet())
-            children.get(childName).getDecksWithMatchingTags(hasMatchingTags, tags);
+    // in order, if they start or end with the segment respectively
+    public int countChildrenNamesStartingWith(final String prefix) {
+        return prefixes.countMatching(prefix);
+    }
+
+    public int countChildrenNamesEndingWith(final String suffix) {
+        return suffixes.countMatching(suffix);
+    }
+
+    public List<String> getChildrenNamesStartingWith(final String prefix) {
+        return prefixes.matching(prefix);
+    }
+
+    public List<String> getChildrenNamesEndingWith(final String suffix) {
+        final List<String> names = suffixes.matching(suffix);
+        names.sort(Comparator.naturalOrder());
+        return names;
     }
 
     @Override
     public void getDecksWithDue(final Set<FFDeckFile> hasDue) {
+        if (getStatistics().getNumDueFlashCards() == 0)
+            return;
+
         for (String childName : children.keySet())
             children.get(childName).getDecksWithDue(hasDue);
     }
 
     @Override
-    public String encode(final int depthLevel) {
-        StringBuilder sb = new StringBuilder(super.encode(depthLevel) +
-                DirectoryParser.DIR_MARKER + DirectoryParser.SCOPE_OPENER);
+    public void getDecks(final List<FFDeckFile> decks) {
+        for (String childName : getSortedChildrenNames())
+            children.get(childName).getDecks(decks);
+    }
+
+    @Override
+    public void getUnloadedDecks(final List<FFDeckFile> unloaded) {
+        for (String childName : getSortedChildrenNames())
+            children.get(childName).getUnloadedDecks(unloaded);
+    }
+
+    private List<String> getSortedChildrenNames() {
+        final List<String> childrenNames = new ArrayList<>(children.keySet());
+        childrenNames.sort(Comparator.naturalOrder());
+        return childrenNames;
+    }
+
+    @Override
+    public void encode(final Writer out, final int depthLevel) throws IOException {
+        super.encode(out, depthLevel);
+        out.write(DirectoryParser.DIR_MARKER);
+        out.write(DirectoryParser.SCOPE_OPENER);
 
-        Set<String> childrenNames = children.keySet();
         int i = 0;
 
-        for (String childName : childrenNames) {
-            FFFile child = children.get(childName);
-            sb.append(child.encode(depthLevel + 1));
-            i++;
+        for (FFFile child : children.values()) {
+            if (i > 0)
+                out.write(DirectoryParser.SEPARATOR);
 
-            if (i < childrenNames.size())
-                sb.append(DirectoryParser.SEPARATOR);
+            child.encode(out, depthLevel + 1);
+            i++;
         }
 
-        if (!childrenNames.isEmpty()) {
-            sb.append(DirectoryParser.NEW_LINE);
-            sb.append(DirectoryParser.TAB.repeat(depthLevel));
+        if (!children.isEmpty()) {
+            out.write(DirectoryParser.NEW_LINE);
+            writeIndentation(out, depthLevel);
         }
 
-        sb.append(DirectoryParser.SCOPE_CLOSER);
-        return sb.toString();
+        out.write(DirectoryParser.SCOPE_CLOSER);
     }
 
     @Override
     public String toString() {
-        return encode(0) + "\n" + getFilepath();
+        return encode() + "\n" + getFilepath();
     }
 }
@@ -4,19 +4,31 @@ import com.redsquare.flashfluency.cli.ExceptionMessenger;
 import com.redsquare.flashfluency.system.exceptions.FlashFluencyLogicException;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public abstract class FFFile {
     private final String name;
     private FFDirectory parent;
+    // totals for the subtree rooted here, kept up to date once counted; null until then, and
+    // whenever a file is stale so are all the directories above it
+    private SubtreeStatistics statistics;
 
-    private static final Comparator<FFFile> ALPHABETICAL_COMPARATOR =
-            Comparator.comparing(FFFile::getName);
-    private static final Comparator<FFDeckFile> COMPLETION_COMPARATOR =
-            Comparator.comparingInt(deck -> -deck.getAssociatedDeck().getPercentageScore());
-    private static final Comparator<FFDeckFile> DUE_COMPARATOR =
-            Comparator.comparingInt(deck -> -deck.getAssociatedDeck().getNumDueFlashCards());
+    // directories before decks; decks by their key, then every file by name
+    private static final Comparator<SortEntry> SORT_ORDER =
+            Comparator.comparingInt(SortEntry::rank).thenComparing(x -> x.file().getName());
+    // below this many files the overhead of a parallel sort is not worth paying
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+    private record SortEntry(FFFile file, int rank) {}
 
     protected FFFile(String name, FFDirectory parent) {
         this.name = name;
@@ -31,6 +43,30 @@ public abstract class FFFile {
         return parent;
     }
 
+    public SubtreeStatistics getStatistics() {
+        if (statistics == null)
+            statistics = countStatistics();
+
+        return statistics;
+    }
+
+    protected abstract SubtreeStatistics countStatistics();
+
+    protected boolean hasStatistics() {
+        return statistics != null;
+    }
+
+    // applies a change to the totals of this file and of every directory above it that has them
+    protected void updateStatistics(final Consumer<SubtreeStatistics> change) {
+        for (FFFile file = this; file != null && file.statistics != null; file = file.parent)
+            change.accept(file.statistics);
+    }
+
+    protected void invalidateStatistics() {
+        for (FFFile file = this; file != null && file.statistics != null; file = file.parent)
+            file.statistics = null;
+    }
+
     public boolean moveTo(final FFDirectory destination) {
         if (destination.equals(getParent())) {
             ExceptionMessenger.deliver(
@@ -55,7 +91,11 @@ public abstract class FFFile {
         parent.removeChild(name);
         parent = null;
 
-        FileIOHelper.deleteFileFootprintFromSystem(oldFilepath);
+        deleteFileFootprint(oldFilepath);
+    }
+
+    protected void deleteFileFootprint(final String filepath) {
+        BackgroundWriter.delete(filepath);
     }
 
     public abstract void updateFileSystem();
@@ -72,41 +112,80 @@ public abstract class FFFile {
         return "";
     }
 
-    public String encode(final int depthLevel) {
-        return (depthLevel == 0 ? "" : DirectoryParser.NEW_LINE +
-                DirectoryParser.TAB.repeat(depthLevel)) +
-                DirectoryParser.NAME_BOUND + name + DirectoryParser.NAME_BOUND;
+    public String encode() {
+        final StringWriter out = new StringWriter();
+
+        try {
+            encode(out, 0);
+        } catch (IOException e) {
+            // a StringWriter cannot fail to write
+            throw new IllegalStateException(e);
+        }
+
+        return out.toString();
     }
 
-    public void getDecksWithMatchingTags(
-            final Set<FFDeckFile> hasMatchingTags, final String[] tags
-    ) {
+    // writes straight to the output so that no level of the tree is built up as a string
+    public void encode(final Writer out, final int depthLevel) throws IOException {
+        if (depthLevel > 0) {
+            out.write(DirectoryParser.NEW_LINE);
+            writeIndentation(out, depthLevel);
+        }
+
+        out.write(DirectoryParser.NAME_BOUND);
+        out.write(name);
+        out.write(DirectoryParser.NAME_BOUND);
+    }
+
+    protected static void writeIndentation(final Writer out, final int depthLevel) throws IOException {
+        for (int i = 0; i < depthLevel; i++)
+            out.write(DirectoryParser.TAB);
     }
 
     public void getDecksWithDue(final Set<FFDeckFile> hasDue) {
     }
 
-    public static Comparator<FFFile> getComparator(final String flag) {
+    public void getDecks(final List<FFDeckFile> decks) {
+    }
+
+    public void getUnloadedDecks(final List<FFDeckFile> unloaded) {
+    }
+
+    // each key is read once before sorting rather than in every comparison, from the
+    // statistics the deck files keep up to date
+    public static List<FFFile> sort(final Collection<FFFile> files, final String flag) {
         final String FLAG_COMPLETION = "-c", FLAG_DUE = "-d"; // FLAG_ALPHABETICAL = "-a"
+        final int DIRECTORY_RANK = Integer.MIN_VALUE;
+
+        final SortEntry[] entries = new SortEntry[files.size()];
+        int i = 0;
+
+        for (FFFile file : files) {
+            final int rank;
+
+            if (file instanceof FFDeckFile deckFile)
+                rank = switch (flag) {
+                    case FLAG_COMPLETION -> -deckFile.getStatistics().getPercentageScore();
+                    case FLAG_DUE -> -deckFile.getStatistics().getNumDueFlashCards();
+                    default -> 0;
+                };
+            else
+                rank = DIRECTORY_RANK;
+
+            entries[i++] = new SortEntry(file, rank);
+        }
+
+        if (entries.length >= PARALLEL_SORT_THRESHOLD)
+            Arrays.parallelSort(entries, SORT_ORDER);
+        else
+            Arrays.sort(entries, SORT_ORDER);
+
+        final List<FFFile> sorted = new ArrayList<>(entries.length);
+
+        for (SortEntry entry : entries)
+            sorted.add(entry.file());
 
-        Comparator<FFDeckFile> deckComparator = switch (flag) {
-            case FLAG_COMPLETION -> COMPLETION_COMPARATOR;
-            case FLAG_DUE -> DUE_COMPARATOR;
-            default -> Comparator.comparing(FFDeckFile::getName);
-        };
-
-        return (o1, o2) -> {
-            if (o1 instanceof FFDirectory dir1 && o2 instanceof FFDirectory dir2)
-                return ALPHABETICAL_COMPARATOR.compare(dir1, dir2);
-            else if (o1 instanceof FFDeckFile deck1 && o2 instanceof FFDeckFile deck2)
-                return deckComparator.compare(deck1, deck2);
-            else if (o1 instanceof FFDeckFile && o2 instanceof FFDirectory)
-                return 1;
-            else if (o2 instanceof FFDeckFile && o1 instanceof FFDirectory)
-                return -1;
-
-            return 0;
-        };
+        return sorted;
     }
 
     protected boolean setParent(final FFDirectory parent) {
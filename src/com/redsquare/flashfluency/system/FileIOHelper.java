@@ -10,16 +10,40 @@ import java.nio.file.Path;
 public class FileIOHelper {
     public static void deleteFileFootprintFromSystem(final String filepath) {
         try {
-            Path path = FileSystems.getDefault().getPath(filepath);
-
-            if (path.toFile().exists())
-                Files.delete(path);
+            deleteFileFootprint(filepath);
         } catch (IOException e) {
-            ExceptionMessenger.deliver(
-                    "The file footprint \"" + filepath +
-                            "\" was not deleted from the system directory.",
-                    false
-            );
+            deliverFileFootprintNotDeleted(filepath);
         }
     }
+
+    public static void deleteFileFootprint(final String filepath) throws IOException {
+        Path path = FileSystems.getDefault().getPath(filepath);
+
+        if (path.toFile().exists())
+            Files.delete(path);
+    }
+
+    public static void deliverFileFootprintNotDeleted(final String filepath) {
+        ExceptionMessenger.deliver(
+                "The file footprint \"" + filepath +
+                        "\" was not deleted from the system directory.",
+                false
+        );
+    }
+
+    public static void moveFile(final String from, final String to) throws IOException {
+        Path source = FileSystems.getDefault().getPath(from),
+                destination = FileSystems.getDefault().getPath(to);
+
+        Files.createDirectories(destination.getParent());
+        Files.move(source, destination);
+    }
+
+    public static void deliverFileNotMoved(final String from, final String to) {
+        ExceptionMessenger.deliver(
+                "The file \"" + from + "\" could not be moved to \"" +
+                        to + "\".",
+                false
+        );
+    }
 }
@@ -0,0 +1,287 @@
+package com.redsquare.flashfluency.system;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+// files are written next to their targets and only replace them once every one has been synced;
+// files updated in place have their new bytes synced to a redo log beside them first, which
+// recover finishes applying if the update was cut short, so a crash part way through leaves
+// each target either entirely old or, once recovered, entirely new
+public class FileWriteBatch {
+    public static final String TEMP_EXTENSION = ".tmp", REDO_EXTENSION = ".redo";
+
+    private final List<Path> temps, targets;
+    private final Map<Path, List<Patch>> updates;
+    // the redo logs that were written, and how many of their targets have been touched
+    private final List<Path> redoLogs;
+    private int updatesStarted;
+    private final List<Action> afterCommit;
+
+    private record Patch(long position, byte[] bytes) {}
+
+    public FileWriteBatch() {
+        temps = new ArrayList<>();
+        targets = new ArrayList<>();
+        updates = new LinkedHashMap<>();
+        redoLogs = new ArrayList<>();
+        afterCommit = new ArrayList<>();
+    }
+
+    @FunctionalInterface
+    public interface Contents {
+        void writeTo(Path path) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws IOException;
+    }
+
+    // writes the contents for the target to a temporary file beside it
+    public void stage(final String filepath, final Contents contents) throws IOException {
+        final Path target = Path.of(filepath), temp = Path.of(tempFilepath(filepath));
+
+        if (target.getParent() != null)
+            Files.createDirectories(target.getParent());
+
+        // left behind by a write that was killed before it committed
+        Files.deleteIfExists(temp);
+
+        try {
+            contents.writeTo(temp);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        temps.add(temp);
+        targets.add(target);
+    }
+
+    // overwrites bytes of an existing file in place on commit, for changes that keep its layout
+    public void update(final String filepath, final long position, final ByteBuffer bytes) {
+        final byte[] copy = new byte[bytes.remaining()];
+        bytes.duplicate().get(copy);
+
+        updates.computeIfAbsent(Path.of(filepath), x -> new ArrayList<>()).add(new Patch(position, copy));
+    }
+
+    public static String tempFilepath(final String filepath) {
+        return filepath + TEMP_EXTENSION;
+    }
+
+    public static String redoFilepath(final String filepath) {
+        return filepath + REDO_EXTENSION;
+    }
+
+    // finishes an update to the file that was cut short, if its redo log was written in full;
+    // a log that was not is dropped, since the file was not touched before the log was synced
+    public static void recover(final String filepath) throws IOException {
+        final Path redo = Path.of(redoFilepath(filepath));
+
+        if (!Files.exists(redo))
+            return;
+
+        final List<Patch> patches = readRedoLog(redo);
+
+        if (patches != null && Files.exists(Path.of(filepath)))
+            apply(Path.of(filepath), patches);
+
+        Files.delete(redo);
+    }
+
+    public void afterCommit(final Action action) {
+        afterCommit.add(action);
+    }
+
+    public void commit() throws IOException {
+        try {
+            // every file is synced before any is renamed so that the syncs are issued together
+            for (Path temp : temps)
+                sync(temp);
+
+            logUpdates();
+
+            for (Map.Entry<Path, List<Patch>> update : updates.entrySet()) {
+                updatesStarted++;
+                apply(update.getKey(), update.getValue());
+            }
+
+            for (Path redo : redoLogs)
+                Files.delete(redo);
+
+            final Set<Path> directories = new LinkedHashSet<>();
+
+            for (int i = 0; i < temps.size(); i++) {
+                move(temps.get(i), targets.get(i));
+
+                if (targets.get(i).toAbsolutePath().getParent() != null)
+                    directories.add(targets.get(i).toAbsolutePath().getParent());
+            }
+
+            // makes the renames themselves durable; once per directory rather than per file
+            for (Path directory : directories)
+                syncDirectory(directory);
+        } catch (IOException e) {
+            abort();
+            throw e;
+        }
+
+        // every action runs even if an earlier one fails
+        IOException failure = null;
+
+        for (Action action : afterCommit) {
+            try {
+                action.run();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        clear();
+
+        if (failure != null)
+            throw failure;
+    }
+
+    // writes and syncs the redo log of every file that is updated in place
+    void logUpdates() throws IOException {
+        for (Map.Entry<Path, List<Patch>> update : updates.entrySet()) {
+            final Path redo = Path.of(redoFilepath(update.getKey().toString()));
+
+            writeRedoLog(redo, update.getValue());
+            redoLogs.add(redo);
+        }
+
+        // the logs must be found after a crash before any target is touched
+        final Set<Path> directories = new LinkedHashSet<>();
+
+        for (Path redo : redoLogs)
+            if (redo.toAbsolutePath().getParent() != null)
+                directories.add(redo.toAbsolutePath().getParent());
+
+        for (Path directory : directories)
+            syncDirectory(directory);
+    }
+
+    public void abort() {
+        final List<Path> discarded = new ArrayList<>(temps);
+
+        // a target that may be half updated keeps its log, to be finished on recovery
+        discarded.addAll(redoLogs.subList(updatesStarted, redoLogs.size()));
+
+        for (Path path : discarded) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+            }
+        }
+
+        clear();
+    }
+
+    private void clear() {
+        temps.clear();
+        targets.clear();
+        updates.clear();
+        redoLogs.clear();
+        updatesStarted = 0;
+        afterCommit.clear();
+    }
+
+    private static void sync(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private static void apply(final Path path, final List<Patch> patches) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            for (Patch patch : patches)
+                channel.write(ByteBuffer.wrap(patch.bytes()), patch.position());
+
+            channel.force(false);
+        }
+    }
+
+    // the patches, then a checksum of them that tells a complete log from one cut short
+    private static void writeRedoLog(final Path redo, final List<Patch> patches) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(patches.size());
+
+        for (Patch patch : patches) {
+            out.writeLong(patch.position());
+            out.writeInt(patch.bytes().length);
+            out.write(patch.bytes());
+        }
+
+        final CRC32 checksum = new CRC32();
+        checksum.update(bytes.toByteArray());
+        out.writeLong(checksum.getValue());
+
+        try (FileChannel channel = FileChannel.open(redo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+
+            channel.force(true);
+        }
+    }
+
+    // null if the log is incomplete
+    private static List<Patch> readRedoLog(final Path redo) throws IOException {
+        final byte[] log = Files.readAllBytes(redo);
+        final int CHECKSUM_SIZE = Long.BYTES;
+
+        if (log.length < Integer.BYTES + CHECKSUM_SIZE)
+            return null;
+
+        final CRC32 checksum = new CRC32();
+        checksum.update(log, 0, log.length - CHECKSUM_SIZE);
+
+        if (checksum.getValue() != ByteBuffer.wrap(log, log.length - CHECKSUM_SIZE, CHECKSUM_SIZE).getLong())
+            return null;
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(log));
+        final List<Patch> patches = new ArrayList<>();
+
+        for (int i = in.readInt(); i > 0; i--) {
+            final long position = in.readLong();
+            final byte[] patch = new byte[in.readInt()];
+            in.readFully(patch);
+            patches.add(new Patch(position, patch));
+        }
+
+        return patches;
+    }
+
+
+    private static void move(final Path temp, final Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void syncDirectory(final Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // not every platform can open a directory for syncing
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.cli.CLIOutput;
+import com.redsquare.flashfluency.cli.CommandParser;
+import com.redsquare.flashfluency.cli.ExceptionMessenger;
+import com.redsquare.flashfluency.logic.Deck;
+import com.redsquare.flashfluency.logic.FlashCard;
+import com.redsquare.flashfluency.system.exceptions.FFErrorMessages;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+// turns a folder of word lists into a subtree of decks, one deck per file
+public class FolderImporter {
+    private static final String TEXT_EXTENSION = ".txt";
+
+    private record Source(Path file, List<String> directories, String deckName) {
+    }
+
+    public static void importFolder(final FFDirectory destination, final String folderpath) {
+        final long start = System.nanoTime();
+        final Path root = Path.of(folderpath);
+
+        if (!Files.isDirectory(root)) {
+            ExceptionMessenger.deliver("The folder \"" + folderpath + "\" could not be found.",
+                    false, "No decks were imported.");
+            return;
+        }
+
+        final List<Source> sources = new ArrayList<>();
+        int skipped = 0;
+
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path file : walk.filter(Files::isRegularFile).sorted().toList()) {
+                final Source source = toSource(root, file);
+
+                if (source != null)
+                    sources.add(source);
+                else if (isWordList(file)) {
+                    skipped++;
+                    deliverSkipped(file, "its name or the name of a folder above it is not valid.");
+                }
+            }
+        } catch (IOException e) {
+            ExceptionMessenger.deliver("The folder \"" + folderpath + "\" could not be read.",
+                    false, "No decks were imported.");
+            return;
+        }
+
+        if (sources.isEmpty()) {
+            CLIOutput.writeImportedFolderSummary(folderpath, 0, 0, skipped, System.nanoTime() - start);
+            return;
+        }
+
+        final ExecutorService executor = DeckLoader.newWorkerPool(sources.size());
+        final FileWriteBatch batch = new FileWriteBatch();
+        int decks = 0, flashCards = 0;
+
+        try {
+            final List<Future<Map<String, FlashCard>>> parsed = new ArrayList<>();
+
+            for (Source source : sources)
+                parsed.add(executor.submit(() -> readFlashCards(source.file())));
+
+            // the tree is only touched on this thread, in the order the files were found
+            for (int i = 0; i < sources.size(); i++) {
+                final FFDeckFile deckFile = collect(destination, sources.get(i), parsed.get(i));
+
+                if (deckFile == null) {
+                    skipped++;
+                    continue;
+                }
+
+                deckFile.save(batch);
+                decks++;
+                flashCards += deckFile.getAssociatedDeck().getNumOfFlashCards();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // every deck and the directory mirror are written once, after all the files are read
+        try {
+            batch.commit();
+            Settings.writeToDirectoryMirrorFile();
+        } catch (IOException e) {
+            ExceptionMessenger.deliver(FFErrorMessages.MESSAGE_FAILED_WRITE_TO_DECK_FILE,
+                    false, FFErrorMessages.CONSEQUENCE_DECK_DATA_NOT_SAVED);
+        }
+
+        CLIOutput.writeImportedFolderSummary(folderpath, decks, flashCards, skipped,
+                System.nanoTime() - start);
+    }
+
+    private static Source toSource(final Path root, final Path file) {
+        if (!isWordList(file))
+            return null;
+
+        final String filename = file.getFileName().toString();
+        final String deckName = filename.substring(0, filename.lastIndexOf('.'));
+
+        if (!CommandParser.isValidName(deckName))
+            return null;
+
+        final List<String> directories = new ArrayList<>();
+        final Path relativeParent = root.relativize(file).getParent();
+
+        if (relativeParent != null) {
+            for (Path segment : relativeParent) {
+                if (!CommandParser.isValidName(segment.toString()))
+                    return null;
+
+                directories.add(segment.toString());
+            }
+        }
+
+        return new Source(file, directories, deckName);
+    }
+
+    private static boolean isWordList(final Path file) {
+        final String filename = file.getFileName().toString().toLowerCase();
+        return filename.endsWith(CardFileReader.CSV_EXTENSION) || filename.endsWith(TEXT_EXTENSION);
+    }
+
+    // the first occurrence of a clue wins, as it does when importing into a deck;
+    // malformed records are left out, as are those a deck file could not hold
+    static Map<String, FlashCard> readFlashCards(final Path file) throws IOException {
+        final int CLUE = 0, ANSWER = 1, TOTAL = 2;
+        final Map<String, FlashCard> flashCards = new HashMap<>();
+
+        try (CardFileReader reader = CardFileReader.open(file.toString())) {
+            List<String> fields;
+
+            while ((fields = reader.next()) != null)
+                if (fields.size() == TOTAL && DeckFileParser.isStorableField(fields.get(CLUE)) &&
+                        DeckFileParser.isStorableField(fields.get(ANSWER)) &&
+                        !flashCards.containsKey(fields.get(CLUE)))
+                    flashCards.put(fields.get(CLUE),
+                            FlashCard.createNew(fields.get(CLUE), fields.get(ANSWER)));
+        }
+
+        return flashCards;
+    }
+
+    private static FFDeckFile collect(
+            final FFDirectory destination, final Source source, final Future<Map<String, FlashCard>> parsed
+    ) {
+        final Map<String, FlashCard> flashCards;
+
+        try {
+            flashCards = parsed.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                deliverSkipped(source.file(), "it could not be read.");
+                return null;
+            } else if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            else
+                throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deliverSkipped(source.file(), "the import was interrupted.");
+            return null;
+        }
+
+        FFDirectory directory = destination;
+
+        for (String name : source.directories()) {
+            if (!directory.hasChild(name))
+                directory.addChildDirectory(name);
+
+            if (!(directory.getChild(name) instanceof FFDirectory child)) {
+                deliverSkipped(source.file(), "a deck named \"" + name + "\" is in the way of its folder.");
+                return null;
+            }
+
+            directory = child;
+        }
+
+        if (directory.hasChild(source.deckName())) {
+            deliverSkipped(source.file(), "its deck already exists.");
+            return null;
+        }
+
+        final FFDeckFile deckFile = directory.addDeckR(source.deckName());
+        deckFile.setAssociatedDeck(Deck.fromImportedFlashCards(
+                source.deckName(), deckFile.getFilepath(), flashCards));
+        return deckFile;
+    }
+
+    private static void deliverSkipped(final Path file, final String reason) {
+        ExceptionMessenger.deliver("The file \"" + file + "\" was skipped because " + reason,
+                false, "No deck was created for it.");
+    }
+}
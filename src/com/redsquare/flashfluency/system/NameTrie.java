@@ -0,0 +1,160 @@
+package com.redsquare.flashfluency.system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// the names of the children of a directory, letter by letter, so that the names starting (or,
+// with the letters stored back to front, ending) with a segment are found by walking the
+// segment once rather than by testing every name
+public class NameTrie {
+    private static final char[] NO_LABELS = {};
+    private static final Node[] NO_CHILDREN = {};
+
+    private final boolean reversed;
+    private final Node root;
+
+    private static final class Node {
+        // kept sorted so that names come out in order
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        // names that end at or below this node
+        private int size;
+        private boolean isName;
+
+        private Node child(final char label) {
+            final int i = Arrays.binarySearch(labels, label);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node addChild(final char label) {
+            final int i = -(Arrays.binarySearch(labels, label) + 1);
+            final Node child = new Node();
+
+            labels = Arrays.copyOf(labels, labels.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(labels, i, labels, i + 1, labels.length - i - 1);
+            System.arraycopy(children, i, children, i + 1, children.length - i - 1);
+            labels[i] = label;
+            children[i] = child;
+
+            return child;
+        }
+
+        private void removeChild(final char label) {
+            final int i = Arrays.binarySearch(labels, label);
+            final int after = labels.length - i - 1;
+
+            System.arraycopy(labels, i + 1, labels, i, after);
+            System.arraycopy(children, i + 1, children, i, after);
+            labels = Arrays.copyOf(labels, labels.length - 1);
+            children = Arrays.copyOf(children, children.length - 1);
+        }
+    }
+
+    private NameTrie(final boolean reversed) {
+        this.reversed = reversed;
+        this.root = new Node();
+    }
+
+    public static NameTrie forPrefixes() {
+        return new NameTrie(false);
+    }
+
+    public static NameTrie forSuffixes() {
+        return new NameTrie(true);
+    }
+
+    public void add(final String name) {
+        final String key = key(name);
+
+        if (contains(key))
+            return;
+
+        Node node = root;
+        node.size++;
+
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.child(key.charAt(i));
+
+            if (child == null)
+                child = node.addChild(key.charAt(i));
+
+            child.size++;
+            node = child;
+        }
+
+        node.isName = true;
+    }
+
+    public void remove(final String name) {
+        final String key = key(name);
+
+        if (!contains(key))
+            return;
+
+        Node node = root;
+        node.size--;
+
+        for (int i = 0; i < key.length(); i++) {
+            final Node child = node.child(key.charAt(i));
+
+            // a branch that no longer leads to any name is cut off whole
+            if (--child.size == 0) {
+                node.removeChild(key.charAt(i));
+                return;
+            }
+
+            node = child;
+        }
+
+        node.isName = false;
+    }
+
+    // the names starting with the segment, or ending with it if the trie is for suffixes
+    public List<String> matching(final String segment) {
+        final List<String> names = new ArrayList<>();
+        final String key = key(segment);
+        final Node node = find(key);
+
+        if (node != null)
+            collect(node, new StringBuilder(key), names);
+
+        return names;
+    }
+
+    public int countMatching(final String segment) {
+        final Node node = find(key(segment));
+        return node == null ? 0 : node.size;
+    }
+
+    private boolean contains(final String key) {
+        final Node node = find(key);
+        return node != null && node.isName;
+    }
+
+    private Node find(final String key) {
+        Node node = root;
+
+        for (int i = 0; i < key.length() && node != null; i++)
+            node = node.child(key.charAt(i));
+
+        return node;
+    }
+
+    private void collect(final Node node, final StringBuilder path, final List<String> names) {
+        if (node.isName)
+            names.add(key(path.toString()));
+
+        for (int i = 0; i < node.labels.length; i++) {
+            path.append(node.labels[i]);
+            collect(node.children[i], path, names);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    // reversing is its own inverse, so the same call turns names into keys and keys into names
+    private String key(final String name) {
+        return reversed ? new StringBuilder(name).reverse().toString() : name;
+    }
+}
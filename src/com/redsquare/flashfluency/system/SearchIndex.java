@@ -0,0 +1,192 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.FlashCard;
+import com.redsquare.flashfluency.logic.QAParser;
+
+import java.util.*;
+
+// the words of every clue and answer in the library, folded the way answers are compared
+// when accents are ignored, mapped to the flash cards they appear in; kept sorted so that a
+// search term matches every word it is the start of. Cards are held by deck and code along
+// with their text, so that indexing a deck neither loads it nor keeps its cards alive
+public class SearchIndex {
+    private static final float EXACT_MATCH = 2f, CLUE_WEIGHT = 1.5f, ANSWER_WEIGHT = 1f;
+    private static final char LAST_CHAR = Character.MAX_VALUE;
+
+    // word -> flash cards that contain it -> how well the word fits the card
+    private static final NavigableMap<String, Map<Card, Float>> POSTINGS = new TreeMap<>();
+    // the text and words of every indexed flash card, so that it can be shown and taken out again
+    private static final Map<Card, Entry> ENTRIES = new HashMap<>();
+    private static final Map<FFDeckFile, Set<Card>> INDEXED = new HashMap<>();
+    // decks whose flash cards are not in the index yet; they are read when the index is next
+    // searched, so that decks are neither parsed nor tokenised until a search needs them
+    private static final Set<FFDeckFile> PENDING = new LinkedHashSet<>();
+
+    private record Card(FFDeckFile deckFile, long packedCode) {}
+
+    private record Entry(String code, String clue, String answer, Set<String> words) {}
+
+    public record Result(FFDeckFile deckFile, String code, String clue, String answer, float score) {}
+
+    static void register(final FFDeckFile deckFile) {
+        PENDING.add(deckFile);
+    }
+
+    static void unregister(final FFDeckFile deckFile) {
+        removeDeck(deckFile);
+        PENDING.remove(deckFile);
+    }
+
+    // the flash cards of the deck are read again, e.g. after it was parsed or cleared
+    static void invalidate(final FFDeckFile deckFile) {
+        removeDeck(deckFile);
+        PENDING.add(deckFile);
+    }
+
+    static void flashCardAdded(final FFDeckFile deckFile, final FlashCard flashCard) {
+        if (!PENDING.contains(deckFile))
+            add(deckFile, flashCard);
+    }
+
+    static void flashCardRemoved(final FFDeckFile deckFile, final FlashCard flashCard) {
+        if (!PENDING.contains(deckFile))
+            remove(new Card(deckFile, flashCard.getPackedCode()));
+    }
+
+    static void flashCardChanged(final FFDeckFile deckFile, final FlashCard flashCard) {
+        if (!PENDING.contains(deckFile)) {
+            remove(new Card(deckFile, flashCard.getPackedCode()));
+            add(deckFile, flashCard);
+        }
+    }
+
+    static void clear() {
+        POSTINGS.clear();
+        ENTRIES.clear();
+        INDEXED.clear();
+        PENDING.clear();
+    }
+
+    // flash cards matching every term, best matches first
+    public static List<Result> search(final String query) {
+        indexPending();
+
+        final List<String> terms = new ArrayList<>(tokenize(query).keySet());
+        Map<Card, Float> scores = null;
+
+        for (String term : terms) {
+            final Map<Card, Float> termScores = new HashMap<>();
+
+            for (Map.Entry<String, Map<Card, Float>> posting :
+                    POSTINGS.subMap(term, true, term + LAST_CHAR, false).entrySet()) {
+                // a whole word beats a word that merely starts with the term, and a short word
+                // that starts with it beats a long one
+                final float fit = posting.getKey().length() == term.length()
+                        ? EXACT_MATCH : term.length() / (float) posting.getKey().length();
+
+                posting.getValue().forEach((card, weight) ->
+                        termScores.merge(card, fit * weight, Math::max));
+            }
+
+            if (scores == null)
+                scores = termScores;
+            else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((card, score) -> score + termScores.get(card));
+            }
+
+            if (scores.isEmpty())
+                break;
+        }
+
+        final List<Result> results = new ArrayList<>();
+
+        if (scores != null)
+            scores.forEach((card, score) -> {
+                final Entry entry = ENTRIES.get(card);
+                results.add(new Result(card.deckFile(), entry.code(), entry.clue(), entry.answer(), score));
+            });
+
+        results.sort(Comparator.comparingDouble((Result x) -> -x.score())
+                .thenComparing(x -> x.deckFile().getFilepath())
+                .thenComparing(Result::clue));
+
+        return results;
+    }
+
+    private static void indexPending() {
+        while (!PENDING.isEmpty()) {
+            final FFDeckFile deckFile = PENDING.iterator().next();
+            PENDING.remove(deckFile);
+
+            for (FlashCard flashCard : deckFile.readFlashCards())
+                add(deckFile, flashCard);
+        }
+    }
+
+    private static void add(final FFDeckFile deckFile, final FlashCard flashCard) {
+        final Card card = new Card(deckFile, flashCard.getPackedCode());
+        final Map<String, Float> words = tokenize(flashCard.getClue(), CLUE_WEIGHT);
+        tokenize(flashCard.getAnswer(), ANSWER_WEIGHT).forEach((word, weight) ->
+                words.merge(word, weight, Math::max));
+
+        words.forEach((word, weight) ->
+                POSTINGS.computeIfAbsent(word, x -> new HashMap<>()).put(card, weight));
+
+        ENTRIES.put(card, new Entry(flashCard.getCode(), flashCard.getClue(), flashCard.getAnswer(),
+                words.keySet()));
+        INDEXED.computeIfAbsent(deckFile, x -> new HashSet<>()).add(card);
+    }
+
+    private static void remove(final Card card) {
+        final Entry entry = ENTRIES.remove(card);
+
+        if (entry == null)
+            return;
+
+        for (String word : entry.words()) {
+            final Map<Card, Float> posting = POSTINGS.get(word);
+            posting.remove(card);
+
+            if (posting.isEmpty())
+                POSTINGS.remove(word);
+        }
+
+        final Set<Card> indexed = INDEXED.get(card.deckFile());
+        indexed.remove(card);
+
+        if (indexed.isEmpty())
+            INDEXED.remove(card.deckFile());
+    }
+
+    private static void removeDeck(final FFDeckFile deckFile) {
+        final Set<Card> indexed = INDEXED.get(deckFile);
+
+        if (indexed != null)
+            new ArrayList<>(indexed).forEach(SearchIndex::remove);
+    }
+
+    private static Map<String, Float> tokenize(final String text) {
+        return tokenize(text, ANSWER_WEIGHT);
+    }
+
+    // words are the runs of letters and digits left once the text is folded
+    private static Map<String, Float> tokenize(final String text, final float weight) {
+        final String folded = QAParser.convertToUnaccented(text);
+        final Map<String, Float> words = new LinkedHashMap<>();
+        int start = -1;
+
+        for (int i = 0; i <= folded.length(); i++) {
+            final boolean inWord = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+
+            if (inWord && start < 0)
+                start = i;
+            else if (!inWord && start >= 0) {
+                words.put(folded.substring(start, i), weight);
+                start = -1;
+            }
+        }
+
+        return words;
+    }
+}
@@ -13,6 +13,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 public class Settings {
@@ -28,28 +29,33 @@ public class Settings {
     private static final String SETTINGS_FILENAME = "settings.txt";
     // private static final String DIRECTORY_MIRROR_FILEPATH = "resources/settings/directory_mirror.txt";
     private static final String DIRECTORY_MIRROR_FILENAME = "directory_mirror.txt";
+    private static final String DECK_SUMMARY_INDEX_FILENAME = "deck_summaries.txt";
 
     // indices
     private static final int LESSON_INTRO_LIMIT = 0,
             LESSON_COUNTER_NEW = 1, LESSON_COUNTER_REVIEW = 2,
-            SECONDS_TIMEOUT = 3, NUM_TECHNICAL_SETTINGS = 4;
+            SECONDS_TIMEOUT = 3, SELECTION_SEED = 4, COLUMNAR_STORAGE_THRESHOLD = 5,
+            NUM_TECHNICAL_SETTINGS = 6;
     private static final int MARK_FOR_ACCENTS = 0,
             OPTION_TO_MARK_MISMATCH_AS_CORRECT = 1, IGNORE_BRACKETED = 2,
-            REVERSE_MODE = 3, TIMED_MODE = 4, SPECIFIC_CLUE_PATH = 5, NUM_FLAGS = 6;
+            REVERSE_MODE = 3, TIMED_MODE = 4, SPECIFIC_CLUE_PATH = 5,
+            PRELOAD_DECKS = 6, WATCH_DECKS = 7, NUM_FLAGS = 8;
 
     // KEYWORDS
     private static final String[] TECHNICAL_KEYWORDS =
             { "lesson_introduction_limit", "lesson_counter_new",
-                    "lesson_counter_review", "seconds_timeout" };
+                    "lesson_counter_review", "seconds_timeout", "selection_seed",
+                    "columnar_storage_threshold" };
     private static final String[] FLAGS_KEYWORDS =
             { "mark_for_accents", "option_to_mark_mismatch_as_correct",
-                    "ignore_bracketed", "reverse_mode", "timed_mode", "specific_clue_path" };
+                    "ignore_bracketed", "reverse_mode", "timed_mode", "specific_clue_path",
+                    "preload_decks", "watch_decks" };
     private static final String KEYWORD_SETUP = "setup", KEYWORD_ROOT = "root",
             KEYWORD_USERNAME = "username";
 
     // DEFAULTS
-    private static final int[] TECHNICAL_SETTINGS_DEFAULTS = { 40, 3, 2, 30 };
-    private static final boolean[] FLAGS_DEFAULTS = { false, true, true, false, false, true };
+    private static final int[] TECHNICAL_SETTINGS_DEFAULTS = { 40, 3, 2, 30, 0, 100_000 };
+    private static final boolean[] FLAGS_DEFAULTS = { false, true, true, false, false, true, false, false };
 
     private static final int[] TECHNICAL_SETTINGS = new int[NUM_TECHNICAL_SETTINGS];
     private static final boolean[] FLAGS = new boolean[NUM_FLAGS];
@@ -88,6 +94,16 @@ public class Settings {
         return TECHNICAL_SETTINGS[SECONDS_TIMEOUT];
     }
 
+    // zero leaves lessons unseeded
+    public static int getSelectionSeed() {
+        return TECHNICAL_SETTINGS[SELECTION_SEED];
+    }
+
+    // decks with at least this many cards keep them in columns rather than as objects; zero never does
+    public static int getColumnarStorageThreshold() {
+        return TECHNICAL_SETTINGS[COLUMNAR_STORAGE_THRESHOLD];
+    }
+
     public static boolean isNotMarkingForAccents() {
         return !FLAGS[MARK_FOR_ACCENTS];
     }
@@ -112,20 +128,93 @@ public class Settings {
         return FLAGS[SPECIFIC_CLUE_PATH];
     }
 
+    public static boolean isPreloadingDecks() {
+        return FLAGS[PRELOAD_DECKS];
+    }
+
+    public static boolean isWatchingDecks() {
+        return FLAGS[WATCH_DECKS];
+    }
+
+    private static void updateDeckWatcher() {
+        if (isWatchingDecks() && !rootFilepath.equals(""))
+            DeckWatcher.start(rootFilepath);
+        else
+            DeckWatcher.stop();
+    }
+
     public static void save() throws IOException {
         writeToSettingsFile();
-        writeToDirectoryMirrorFile();
+
+        // decks whose background save failed are written again with the others
+        BackgroundWriter.flush();
+        BackgroundWriter.reportFailures();
+        saveModifiedDecks();
+        DeckSummaryIndex.save(getDeckSummaryIndexPath());
+    }
+
+    private static Path getDeckSummaryIndexPath() {
+        return FileSystems.getDefault().getPath(THIS_DIR_FP,
+                RESOURCES_FP, SETTINGS_FP, DECK_SUMMARY_INDEX_FILENAME);
     }
 
-    private static void writeToDirectoryMirrorFile() throws IOException {
+    // the directory mirror is swapped in with the decks rather than truncated and rewritten in place
+    private static void saveModifiedDecks() throws IOException {
+        final List<FFDeckFile> decks = new ArrayList<>();
+        rootDirectory.getDecks(decks);
+
+        // every modified deck is synced and swapped in together
+        final FileWriteBatch batch = new FileWriteBatch();
+        int saved = 0, skipped = 0;
+
+        for (FFDeckFile deck : decks) {
+            if (!deck.isModified())
+                skipped++;
+            else if (deck.save(batch))
+                saved++;
+        }
+
+        // the decks are still written if the mirror cannot be
+        IOException mirrorFailure = null;
+
+        try {
+            stageDirectoryMirrorFile(batch);
+        } catch (IOException e) {
+            mirrorFailure = e;
+        }
+
+        try {
+            batch.commit();
+        } catch (IOException e) {
+            ExceptionMessenger.deliver(FFErrorMessages.MESSAGE_FAILED_WRITE_TO_DECK_FILE,
+                    false, FFErrorMessages.CONSEQUENCE_DECK_DATA_NOT_SAVED);
+            saved = 0;
+        }
+
+        // only decks that were written are counted, and nothing is said if none were
+        if (saved > 0)
+            CLIOutput.writeSavedDecksSummary(saved, skipped);
+
+        if (mirrorFailure != null)
+            throw mirrorFailure;
+    }
+
+    public static void writeToDirectoryMirrorFile() throws IOException {
+        final FileWriteBatch batch = new FileWriteBatch();
+        stageDirectoryMirrorFile(batch);
+        batch.commit();
+    }
+
+    private static void stageDirectoryMirrorFile(final FileWriteBatch batch) throws IOException {
         Path path = FileSystems.getDefault().getPath(THIS_DIR_FP,
                 RESOURCES_FP, SETTINGS_FP, DIRECTORY_MIRROR_FILENAME);
         // BufferedWriter bw = new BufferedWriter(new FileWriter(DIRECTORY_MIRROR_FILEPATH));
-        BufferedWriter bw = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
-
-        bw.write(rootDirectory.encode(0));
-        bw.newLine();
-        bw.close();
+        batch.stage(path.toString(), x -> {
+            try (BufferedWriter bw = Files.newBufferedWriter(x, StandardCharsets.UTF_8)) {
+                rootDirectory.encode(bw, 0);
+                bw.newLine();
+            }
+        });
     }
 
     private static void writeToSettingsFile() throws IOException {
@@ -228,12 +317,11 @@ public class Settings {
         try {
             if (setUp && !rootFilepath.equals("") && path.toFile().exists()) {
                 // BufferedReader directoryBR = new BufferedReader(new FileReader(directoryMirrorFile));
-                BufferedReader directoryBR = Files.newBufferedReader(path, StandardCharsets.UTF_8);
-
-                StringBuilder sb = new StringBuilder();
-                directoryBR.lines().forEach(x -> sb.append(x.trim()));
+                DeckSummaryIndex.load(getDeckSummaryIndexPath());
 
-                parseDirectoryMirror(sb.toString());
+                try (BufferedReader directoryBR = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    parseDirectoryMirror(directoryBR);
+                }
             } else {
                 if (!setUp)
                     setup();
@@ -248,6 +336,8 @@ public class Settings {
             ExceptionMessenger.deliver(FFErrorMessages.MESSAGE_FAILED_TO_WRITE_TO_DIR_MIRROR,
                     false, FFErrorMessages.CONSEQUENCE_COULD_NOT_SAVE);
         }
+
+        updateDeckWatcher();
     }
 
     private static void populateSettings(final List<String> lines) {
@@ -272,10 +362,13 @@ public class Settings {
         }
     }
 
-    private static void parseDirectoryMirror(final String line) {
+    private static void parseDirectoryMirror(final Reader mirror) throws IOException {
         try {
             rootDirectory = FFDirectory.createRoot();
-            DirectoryParser.parse(line, rootDirectory);
+            DirectoryParser.parse(mirror, rootDirectory);
+
+            if (isPreloadingDecks())
+                DeckLoader.loadAll(rootDirectory);
         } catch (InvalidDirectoryFormatException e) {
             ExceptionMessenger.deliver(e);
         }
@@ -300,6 +393,9 @@ public class Settings {
                 boolean b = Boolean.parseBoolean(value);
                 FLAGS[i] = b;
                 matchFound = true;
+
+                if (i == WATCH_DECKS)
+                    updateDeckWatcher();
             }
 
         // other
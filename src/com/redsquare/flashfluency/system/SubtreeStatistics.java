@@ -0,0 +1,97 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.DeckSummary;
+import com.redsquare.flashfluency.logic.Pot;
+import com.redsquare.flashfluency.logic.SessionClock;
+
+import java.time.LocalDate;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// totals over every deck below a point in the directory tree; due cards are kept by the day
+// they fall due so that the count stays right when the date changes
+public class SubtreeStatistics {
+    private int numOfDecks, numOfFlashCards;
+    private long scoreTotal;
+    // epoch day -> number of flash cards due on that day
+    private final SortedMap<Long, Integer> dueHistogram;
+
+    private SubtreeStatistics() {
+        dueHistogram = new TreeMap<>();
+    }
+
+    static SubtreeStatistics empty() {
+        return new SubtreeStatistics();
+    }
+
+    static SubtreeStatistics ofDeck(final DeckSummary summary) {
+        final SubtreeStatistics statistics = new SubtreeStatistics();
+
+        statistics.numOfDecks = 1;
+        statistics.numOfFlashCards = summary.getNumOfFlashCards();
+        statistics.scoreTotal = summary.getScoreTotal();
+        statistics.dueHistogram.putAll(summary.getDueHistogram());
+
+        return statistics;
+    }
+
+    void add(final SubtreeStatistics other) {
+        combine(other, 1);
+    }
+
+    void subtract(final SubtreeStatistics other) {
+        combine(other, -1);
+    }
+
+    void countFlashCard(final Pot pot, final LocalDate due, final int change) {
+        numOfFlashCards += change;
+        scoreTotal += change * pot.getScore();
+        countDue(due.toEpochDay(), change);
+    }
+
+    void changePot(final Pot previousPot, final Pot pot) {
+        scoreTotal += pot.getScore() - previousPot.getScore();
+    }
+
+    void changeDue(final LocalDate previousDue, final LocalDate due) {
+        countDue(previousDue.toEpochDay(), -1);
+        countDue(due.toEpochDay(), 1);
+    }
+
+    public int getNumOfDecks() {
+        return numOfDecks;
+    }
+
+    public int getNumOfFlashCards() {
+        return numOfFlashCards;
+    }
+
+    public long getScoreTotal() {
+        return scoreTotal;
+    }
+
+    public int getNumDueFlashCards() {
+        int due = 0;
+
+        for (int count : dueHistogram.headMap((long) SessionClock.today() + 1).values())
+            due += count;
+
+        return due;
+    }
+
+    // in longs, as a whole library can hold more points than an int can hold a hundred times over
+    public int getPercentageScore() {
+        return (int)((scoreTotal * 100L) / (double)((long) numOfFlashCards * Pot.MAX_SCORE));
+    }
+
+    private void combine(final SubtreeStatistics other, final int sign) {
+        numOfDecks += sign * other.numOfDecks;
+        numOfFlashCards += sign * other.numOfFlashCards;
+        scoreTotal += sign * other.scoreTotal;
+        other.dueHistogram.forEach((day, count) -> countDue(day, sign * count));
+    }
+
+    private void countDue(final long epochDay, final int change) {
+        dueHistogram.merge(epochDay, change, (a, b) -> a + b == 0 ? null : a + b);
+    }
+}
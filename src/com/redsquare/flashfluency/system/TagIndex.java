@@ -0,0 +1,130 @@
+package com.redsquare.flashfluency.system;
+
+import java.util.*;
+
+// which decks carry each tag, across the whole library; tags and deck files are numbered so
+// that the decks with several tags are found by intersecting one bit set per tag
+public class TagIndex {
+    private static final Map<String, Integer> TAG_IDS = new HashMap<>();
+    // tag id -> ids of the decks with that tag
+    private static final List<BitSet> POSTINGS = new ArrayList<>();
+    // deck id -> ids of the tags it is posted under, so that taking a deck out touches only those
+    private static final List<BitSet> DECK_TAGS = new ArrayList<>();
+    // deck id -> deck file, or null once the id is free
+    private static final List<FFDeckFile> DECKS = new ArrayList<>();
+    private static final BitSet FREE_IDS = new BitSet();
+    // decks whose tags are not in the postings yet; they are read when the index is next queried,
+    // so that registering an unloaded deck does not parse it
+    private static final BitSet PENDING = new BitSet();
+
+    static int register(final FFDeckFile deckFile) {
+        int id = FREE_IDS.nextSetBit(0);
+
+        if (id >= 0) {
+            FREE_IDS.clear(id);
+            DECKS.set(id, deckFile);
+        } else {
+            id = DECKS.size();
+            DECKS.add(deckFile);
+            DECK_TAGS.add(new BitSet());
+        }
+
+        PENDING.set(id);
+        return id;
+    }
+
+    static void unregister(final int id) {
+        clearPostings(id);
+        PENDING.clear(id);
+        DECKS.set(id, null);
+        FREE_IDS.set(id);
+    }
+
+    // the tags of the deck are read again, e.g. after it was parsed from a changed file
+    static void invalidate(final int id) {
+        clearPostings(id);
+        PENDING.set(id);
+    }
+
+    static void tagAdded(final int id, final String tag) {
+        if (!PENDING.get(id))
+            post(id, tag);
+    }
+
+    static void tagRemoved(final int id, final String tag) {
+        final Integer tagId = TAG_IDS.get(tag);
+
+        if (!PENDING.get(id) && tagId != null) {
+            POSTINGS.get(tagId).clear(id);
+            DECK_TAGS.get(id).clear(tagId);
+        }
+    }
+
+    static void clear() {
+        TAG_IDS.clear();
+        POSTINGS.clear();
+        DECK_TAGS.clear();
+        DECKS.clear();
+        FREE_IDS.clear();
+        PENDING.clear();
+    }
+
+    public static List<FFDeckFile> getDecksWithTags(final FFDirectory directory, final String[] tags) {
+        indexPending();
+
+        BitSet matching = null;
+
+        for (String tag : tags) {
+            final Integer tagId = TAG_IDS.get(tag);
+
+            if (tagId == null)
+                return new ArrayList<>();
+
+            if (matching == null)
+                matching = (BitSet) POSTINGS.get(tagId).clone();
+            else
+                matching.and(POSTINGS.get(tagId));
+        }
+
+        final List<FFDeckFile> decks = new ArrayList<>();
+
+        if (matching == null)
+            return decks;
+
+        for (int id = matching.nextSetBit(0); id >= 0; id = matching.nextSetBit(id + 1))
+            if (directory.isAncestorOf(DECKS.get(id)))
+                decks.add(DECKS.get(id));
+
+        return decks;
+    }
+
+    private static void indexPending() {
+        for (int id = PENDING.nextSetBit(0); id >= 0; id = PENDING.nextSetBit(0)) {
+            // reading the summary can parse the deck, which marks it as pending once more
+            final Set<String> tags = DECKS.get(id).getSummary().getTags();
+            PENDING.clear(id);
+
+            for (String tag : tags)
+                post(id, tag);
+        }
+    }
+
+    private static void post(final int id, final String tag) {
+        final int tagId = TAG_IDS.computeIfAbsent(tag, x -> {
+            POSTINGS.add(new BitSet());
+            return POSTINGS.size() - 1;
+        });
+
+        POSTINGS.get(tagId).set(id);
+        DECK_TAGS.get(id).set(tagId);
+    }
+
+    private static void clearPostings(final int id) {
+        final BitSet tagIds = DECK_TAGS.get(id);
+
+        for (int tagId = tagIds.nextSetBit(0); tagId >= 0; tagId = tagIds.nextSetBit(tagId + 1))
+            POSTINGS.get(tagId).clear(id);
+
+        tagIds.clear();
+    }
+}
@@ -1,5 +1,7 @@
 package com.redsquare.flashfluency.system.exceptions;
 
+import java.util.List;
+
 public class FlashFluencyLogicException extends FlashFluencyException {
     public static final String CONSEQUENCE_COMMAND_NOT_EXECUTED =
             "The command was not executed.";
@@ -67,16 +69,44 @@ public class FlashFluencyLogicException extends FlashFluencyException {
     }
 
     public static FlashFluencyLogicException multipleMatchesForSegmentType(
-            final boolean isPrefix, final String name
+            final boolean isPrefix, final String name, final List<String> candidates
     ) {
         final String message = "There are multiple decks and/or subdirectories " +
                 (isPrefix ? "starting" : "ending") +
-                " with \"" + name + "\" in this directory.";
+                " with \"" + name + "\" in this directory: " + listCandidates(candidates) + ".";
 
         return new FlashFluencyLogicException(
                 message, false, CONSEQUENCE_COMMAND_NOT_EXECUTED);
     }
 
+    public static FlashFluencyLogicException fileDoesNotExistInDirOrLibrary(final String name) {
+        return new FlashFluencyLogicException(
+                "The deck or subdirectory \"" + name + "\" does not exist in this directory, " +
+                        "and there is no deck of that name anywhere else.",
+                false, CONSEQUENCE_COMMAND_NOT_EXECUTED
+        );
+    }
+
+    public static FlashFluencyLogicException multipleDecksWithName(
+            final String name, final List<String> candidates
+    ) {
+        return new FlashFluencyLogicException(
+                "There are multiple decks named \"" + name + "\": " + listCandidates(candidates) + ".",
+                false, CONSEQUENCE_COMMAND_NOT_EXECUTED
+        );
+    }
+
+    private static String listCandidates(final List<String> candidates) {
+        final int MAX_LISTED = 10;
+
+        final String listed = String.join(", ",
+                candidates.subList(0, Math.min(MAX_LISTED, candidates.size())));
+
+        return candidates.size() > MAX_LISTED
+                ? listed + " and " + (candidates.size() - MAX_LISTED) + " more"
+                : listed;
+    }
+
     public static FlashFluencyLogicException contextIsNotDeckFile() {
         return new FlashFluencyLogicException(
                 "This context is not a deck file.", false,
@@ -34,6 +34,12 @@ public class InvalidDeckFileFormatException extends InvalidFormatException {
                 false, CONSEQUENCE_DECK_FILE_COULD_NOT_BE_PARSED);
     }
 
+    public static InvalidDeckFileFormatException unsupportedBinaryDeckFile(String filepath) {
+        return new InvalidDeckFileFormatException(
+                "The binary deck file " + filepath + " has an unrecognised header or version",
+                false, CONSEQUENCE_DECK_FILE_COULD_NOT_BE_PARSED);
+    }
+
     public static InvalidDeckFileFormatException invalidNameForDeck(String name) {
         return new InvalidDeckFileFormatException(
                 "The name \"" + name + "\" is an invalid deck name as it contains ineligible characters",
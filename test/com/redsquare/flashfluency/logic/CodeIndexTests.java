@@ -0,0 +1,117 @@
+package com.redsquare.flashfluency.logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class CodeIndexTests {
+    // the size a new index starts at, which holds eight entries before it grows
+    private static final int INITIAL_CAPACITY = 16;
+
+    @Test
+    public void collidingCodesSurviveRemoval() {
+        final CodeIndex index = new CodeIndex();
+        final Map<Long, FlashCard> expected = new LinkedHashMap<>();
+
+        for (long code : codesHomedAt(5, 6))
+            put(index, expected, code);
+
+        final List<Long> codes = new ArrayList<>(expected.keySet());
+
+        // a card that no longer holds the code leaves its entry alone
+        index.remove(codes.get(0), FlashCard.createNew("other", "other"));
+        assertHolds(index, expected);
+
+        // from the middle of the probe sequence, its start and its end
+        for (int i : new int[] { 2, 0, 5 }) {
+            final long code = codes.get(i);
+            index.remove(code, expected.remove(code));
+            assertHolds(index, expected);
+            Assert.assertNull(index.get(code));
+        }
+    }
+
+    @Test
+    public void probeSequencesWrapPastTheEnd() {
+        final CodeIndex index = new CodeIndex();
+        final Map<Long, FlashCard> expected = new LinkedHashMap<>();
+        final int last = INITIAL_CAPACITY - 1;
+
+        // three codes homed at the last slot spill over into the first two
+        for (long code : codesHomedAt(last, 3))
+            put(index, expected, code);
+        // and these find their homes taken by them
+        for (long code : codesHomedAt(0, 2))
+            put(index, expected, code);
+        put(index, expected, codesHomedAt(1, 1).get(0));
+
+        final List<Long> codes = new ArrayList<>(expected.keySet());
+
+        for (int i : new int[] { 0, 3, 1, 5, 2, 4 }) {
+            final long code = codes.get(i);
+            index.remove(code, expected.remove(code));
+            assertHolds(index, expected);
+            Assert.assertNull(index.get(code));
+        }
+    }
+
+    @Test
+    public void removalKeepsUpWithResizing() {
+        final CodeIndex index = new CodeIndex();
+        final Map<Long, FlashCard> expected = new HashMap<>();
+        final Random random = new Random(17);
+
+        // the table grows several times over while every third step takes a card back out
+        for (int i = 0; i < 20_000; i++) {
+            if (i % 3 == 2) {
+                final long code = expected.keySet().iterator().next();
+                index.remove(code, expected.remove(code));
+                Assert.assertNull(index.get(code));
+            } else {
+                long code;
+
+                do {
+                    code = random.nextInt(1 << 20);
+                } while (expected.containsKey(code));
+
+                put(index, expected, code);
+            }
+
+            if (i % 1_000 == 0)
+                assertHolds(index, expected);
+        }
+
+        assertHolds(index, expected);
+
+        for (long code : new ArrayList<>(expected.keySet()))
+            index.remove(code, expected.remove(code));
+
+        assertHolds(index, expected);
+        Assert.assertFalse(index.contains(0L));
+    }
+
+    private static void put(final CodeIndex index, final Map<Long, FlashCard> expected, final long code) {
+        final FlashCard flashCard = FlashCard.createNew("clue " + code, "answer " + code);
+        index.put(code, flashCard);
+        expected.put(code, flashCard);
+    }
+
+    private static void assertHolds(final CodeIndex index, final Map<Long, FlashCard> expected) {
+        expected.forEach((code, flashCard) -> Assert.assertSame(flashCard, index.get(code)));
+    }
+
+    // the first codes whose home is the given slot of a new index, as CodeIndex mixes them
+    private static List<Long> codesHomedAt(final int slot, final int count) {
+        final List<Long> codes = new ArrayList<>();
+
+        for (long code = 0L; codes.size() < count; code++) {
+            final long mixed = code * 0x9E3779B97F4A7C15L;
+
+            if (((int) (mixed ^ (mixed >>> 32)) & (INITIAL_CAPACITY - 1)) == slot)
+                codes.add(code);
+        }
+
+        return codes;
+    }
+}
@@ -0,0 +1,177 @@
+package com.redsquare.flashfluency.logic;
+
+import com.redsquare.flashfluency.system.BackgroundWriter;
+import com.redsquare.flashfluency.system.DeckFileParser;
+import com.redsquare.flashfluency.system.DeckJournal;
+import com.redsquare.flashfluency.system.FileIOHelper;
+import com.redsquare.flashfluency.system.Settings;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+
+public class ColumnarStorageTests {
+    private static final String THRESHOLD = "columnar_storage_threshold";
+
+    @Test
+    public void columnarDeckCountsLikeObjectDeck() {
+        final int previous = Settings.getColumnarStorageThreshold();
+
+        try {
+            Settings.set(THRESHOLD, "0");
+            final Deck objects = syntheticDeck(500);
+            Settings.set(THRESHOLD, "1");
+            final Deck columns = syntheticDeck(500);
+
+            Assert.assertEquals(objects.getNumOfFlashCards(), columns.getNumOfFlashCards());
+            Assert.assertEquals(objects.getNumDueFlashCards(), columns.getNumDueFlashCards());
+            Assert.assertEquals(objects.getPercentageScore(), columns.getPercentageScore());
+            Assert.assertArrayEquals(objects.summarize().getPotHistogram(), columns.summarize().getPotHistogram());
+            Assert.assertEquals(objects.summarize().getDueHistogram(), columns.summarize().getDueHistogram());
+            Assert.assertEquals(objects.getFlashCardClues(), new HashSet<>(columns.getFlashCardClues()));
+
+            for (FlashCard flashCard : objects.getFlashCards()) {
+                final FlashCard view = columns.getFlashCardFromCode(flashCard.getCode()).orElseThrow();
+
+                Assert.assertEquals(flashCard.getClue(), view.getClue());
+                Assert.assertEquals(flashCard.getAnswer(), view.getAnswer());
+                Assert.assertEquals(flashCard.getDue(), view.getDue());
+                Assert.assertEquals(flashCard.getPot(), view.getPot());
+            }
+        } finally {
+            Settings.set(THRESHOLD, String.valueOf(previous));
+        }
+    }
+
+    @Test
+    public void viewsStayTheSameWhileHeld() {
+        final int previous = Settings.getColumnarStorageThreshold();
+
+        try {
+            Settings.set(THRESHOLD, "1");
+            final Deck deck = syntheticDeck(100);
+            final FlashCard view = deck.getFlashCard("clue 7");
+            final int due = deck.getNumDueFlashCards();
+
+            Assert.assertSame(view, deck.getFlashCard("clue 7"));
+            Assert.assertSame(view, deck.getFlashCardFromCode(view.getCode()).orElseThrow());
+
+            final boolean wasDue = view.isDue();
+            view.adjustFromAnswer(false);
+            Assert.assertEquals(wasDue ? due : due + 1, deck.getNumDueFlashCards());
+
+            view.setClue("renamed");
+            Assert.assertSame(view, deck.getFlashCard("renamed"));
+            Assert.assertNull(deck.getFlashCard("clue 7"));
+            Assert.assertTrue(deck.getFlashCardClues().contains("renamed"));
+
+            deck.removeFlashCard(view);
+            Assert.assertEquals(99, deck.getNumOfFlashCards());
+            Assert.assertTrue(deck.getFlashCardFromCode(view.getCode()).isEmpty());
+            Assert.assertFalse(deck.getFlashCardClues().contains("renamed"));
+        } finally {
+            Settings.set(THRESHOLD, String.valueOf(previous));
+        }
+    }
+
+    @Test
+    public void changesToViewsAreSaved() throws Exception {
+        final int previous = Settings.getColumnarStorageThreshold();
+        final File dir = Files.createTempDirectory("ff-columns").toFile();
+        final File file = new File(dir, "deck" + Settings.DECK_FILE_EXTENSION);
+
+        Files.writeString(file.toPath(), "description:deck\ntags:\nflash_cards:\n" +
+                "hola;hello;true;3-4-2022;C;2\n" +
+                "adios;goodbye;false;1-12-2021;NEW;1\n");
+
+        try {
+            Settings.set(THRESHOLD, "1");
+            final Deck deck = DeckFileParser.read("deck", file.getPath());
+            final FlashCard hola = deck.getFlashCard("hola");
+
+            hola.adjustFromAnswer(true);
+            hola.updateRecord(true);
+            deck.getFlashCard("adios").setAnswer("bye");
+            deck.saveDeck();
+            BackgroundWriter.flush();
+
+            Settings.set(THRESHOLD, "0");
+            final Deck reread = DeckFileParser.read("deck", file.getPath());
+
+            Assert.assertEquals(hola.getPot(), reread.getFlashCard("hola").getPot());
+            Assert.assertEquals(hola.getDue(), reread.getFlashCard("hola").getDue());
+            Assert.assertEquals(1, reread.getFlashCard("hola").getAttemptedInTests());
+            Assert.assertEquals("bye", reread.getFlashCard("adios").getAnswer());
+        } finally {
+            Settings.set(THRESHOLD, String.valueOf(previous));
+            FileIOHelper.deleteFileFootprint(DeckJournal.journalFilepath(file.getPath()));
+            file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void deckMovesIntoColumnsPastThreshold() {
+        final int previous = Settings.getColumnarStorageThreshold();
+
+        try {
+            Settings.set(THRESHOLD, "10");
+            final Deck deck = syntheticDeck(9);
+            final FlashCard held = deck.getFlashCard("clue 3");
+
+            deck.addFlashCard(FlashCard.createNew("clue 9", "answer 9"));
+
+            // the objects the deck had become its first views
+            Assert.assertSame(held, deck.getFlashCard("clue 3"));
+            held.reset();
+            Assert.assertEquals(Pot.NEW, deck.getFlashCardFromCode(held.getCode()).orElseThrow().getPot());
+            Assert.assertEquals(DeckSummary.of(deck.getTags(), deck.getFlashCards()).getScoreTotal(),
+                    deck.summarize().getScoreTotal());
+        } finally {
+            Settings.set(THRESHOLD, String.valueOf(previous));
+        }
+    }
+
+    @Test
+    public void storeRemovalKeepsTablesConsistent() {
+        final Map<String, FlashCard> flashCards = new HashMap<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            final String clue = "clue " + i;
+            flashCards.put(clue, FlashCard.createNew(clue, "answer " + i));
+        }
+
+        final ColumnarCardStore store = ColumnarCardStore.of(flashCards.values());
+
+        for (int i = 0; i < 10_000; i += 3) {
+            Assert.assertTrue(store.remove("clue " + i));
+            flashCards.remove("clue " + i);
+        }
+
+        Assert.assertFalse(store.remove("clue 0"));
+        Assert.assertEquals(flashCards.size(), store.size());
+
+        for (FlashCard flashCard : flashCards.values()) {
+            final int i = store.indexOf(flashCard.getClue());
+
+            Assert.assertEquals(flashCard.getAnswer(), store.getAnswer(i));
+            Assert.assertEquals(i, store.indexOfCode(flashCard.getPackedCode()));
+        }
+    }
+
+    private static Deck syntheticDeck(final int numFlashCards) {
+        final Pot[] pots = Pot.values();
+        final Map<String, FlashCard> flashCards = new HashMap<>();
+
+        for (int i = 0; i < numFlashCards; i++) {
+            final String clue = "clue " + i;
+            flashCards.put(clue, FlashCard.fromParsedDeckFile(clue, "answer " + i,
+                    i % 2 == 0, SessionClock.todayDate().plusDays(i % 7 - 3), pots[i % pots.length],
+                    1, i % 5, i % 9, CardCode.unpack(i + 1)));
+        }
+
+        return Deck.fromParsedDeckFile("synthetic", "", "", new HashSet<>(), flashCards);
+    }
+}
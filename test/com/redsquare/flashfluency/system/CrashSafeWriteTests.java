@@ -0,0 +1,177 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.Deck;
+import com.redsquare.flashfluency.logic.FlashCard;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+public class CrashSafeWriteTests {
+    private static final int CARDS_IN_DECK = 5_000, KILLS = 2;
+    private static final String ORIGINAL = "original", REWRITE = "rewrite ";
+
+    @Test
+    public void killedWriterLeavesDeckIntact() throws Exception {
+        final Path dir = Files.createTempDirectory("flashfluency");
+        final String filepath = dir.resolve("deck" + Settings.DECK_FILE_EXTENSION).toString();
+
+        try {
+            DeckFileParser.saveToFile(filepath, ORIGINAL, new HashSet<>(), syntheticCards(), DeckFileFormat.TEXT);
+
+            for (int kill = 0; kill < KILLS; kill++) {
+                final Process writer = new ProcessBuilder(
+                        System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                        "-cp", System.getProperty("java.class.path"),
+                        CrashingWriter.class.getName(), filepath
+                ).redirectErrorStream(true).start();
+
+                // the writer announces itself once it is about to start rewriting the deck
+                final BufferedReader out = new BufferedReader(new InputStreamReader(writer.getInputStream()));
+                Assert.assertNotNull(out.readLine());
+
+                Thread.sleep(ThreadLocalRandom.current().nextInt(20, 150));
+                writer.destroyForcibly();
+                writer.waitFor();
+
+                final Deck deck = DeckFileParser.read("deck", filepath);
+
+                Assert.assertEquals(CARDS_IN_DECK, deck.getNumOfFlashCards());
+                Assert.assertTrue(deck.getDescription().equals(ORIGINAL) ||
+                        deck.getDescription().startsWith(REWRITE));
+
+                // reading the deck clears away whatever the killed write had staged
+                BackgroundWriter.flush();
+                Assert.assertFalse(Files.exists(Path.of(FileWriteBatch.tempFilepath(filepath))));
+            }
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void uncommittedBatchLeavesDeckIntact() throws Exception {
+        final Path dir = Files.createTempDirectory("flashfluency");
+        final String filepath = dir.resolve("deck" + Settings.DECK_FILE_EXTENSION).toString();
+
+        try {
+            DeckFileParser.saveToFile(filepath, ORIGINAL, new HashSet<>(), syntheticCards(), DeckFileFormat.TEXT);
+
+            // a writer that dies between staging and committing never touches the deck file
+            final FileWriteBatch batch = new FileWriteBatch();
+            DeckFileParser.saveToFile(filepath, REWRITE, new HashSet<>(), new HashMap<>(),
+                    DeckFileFormat.TEXT, batch);
+
+            Assert.assertEquals(ORIGINAL, DeckFileParser.read("deck", filepath).getDescription());
+
+            batch.abort();
+
+            Assert.assertFalse(Files.exists(Path.of(FileWriteBatch.tempFilepath(filepath))));
+            Assert.assertEquals(CARDS_IN_DECK, DeckFileParser.read("deck", filepath).getNumOfFlashCards());
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void cutShortUpdateIsFinishedOnRecovery() throws Exception {
+        final Path dir = Files.createTempDirectory("flashfluency");
+        final String filepath = dir.resolve("deck" + Settings.DECK_FILE_EXTENSION).toString();
+
+        try {
+            DeckFileParser.saveToFile(filepath, ORIGINAL, new HashSet<>(), syntheticCards(), DeckFileFormat.BINARY);
+
+            // only learning state changes, so the records are updated in place
+            final Deck deck = DeckFileParser.read("deck", filepath);
+            deck.getFlashCards().forEach(x -> x.updateRecord(true));
+
+            final FileWriteBatch batch = new FileWriteBatch();
+            deck.saveToFile(batch);
+            Assert.assertFalse(Files.exists(Path.of(FileWriteBatch.tempFilepath(filepath))));
+
+            // the writer dies once the redo log is synced, before or while the records are overwritten
+            batch.logUpdates();
+
+            final Deck recovered = DeckFileParser.read("deck", filepath);
+
+            Assert.assertFalse(Files.exists(Path.of(FileWriteBatch.redoFilepath(filepath))));
+            Assert.assertTrue(recovered.getFlashCards().stream().allMatch(x -> x.getAttemptedInTests() == 1));
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void incompleteRedoLogLeavesDeckOld() throws Exception {
+        final Path dir = Files.createTempDirectory("flashfluency");
+        final String filepath = dir.resolve("deck" + Settings.DECK_FILE_EXTENSION).toString();
+        final Path redo = Path.of(FileWriteBatch.redoFilepath(filepath));
+
+        try {
+            DeckFileParser.saveToFile(filepath, ORIGINAL, new HashSet<>(), syntheticCards(), DeckFileFormat.BINARY);
+
+            final Deck deck = DeckFileParser.read("deck", filepath);
+            deck.getFlashCards().forEach(x -> x.updateRecord(true));
+
+            final FileWriteBatch batch = new FileWriteBatch();
+            deck.saveToFile(batch);
+            batch.logUpdates();
+
+            // the writer dies while the redo log is written, so the deck file was never touched
+            final byte[] log = Files.readAllBytes(redo);
+            Files.write(redo, Arrays.copyOf(log, log.length / 2));
+
+            final Deck recovered = DeckFileParser.read("deck", filepath);
+
+            Assert.assertFalse(Files.exists(redo));
+            Assert.assertTrue(recovered.getFlashCards().stream().allMatch(x -> x.getAttemptedInTests() == 0));
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    private static void deleteDirectory(final Path dir) throws IOException {
+        BackgroundWriter.flush();
+
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList())
+                Files.deleteIfExists(path);
+        }
+    }
+
+    private static Map<String, FlashCard> syntheticCards() {
+        final Map<String, FlashCard> flashCards = new HashMap<>();
+
+        for (int i = 0; i < CARDS_IN_DECK; i++) {
+            final String clue = "clue number " + i;
+            flashCards.put(clue, FlashCard.createNew(clue, "answer number " + i));
+        }
+
+        return flashCards;
+    }
+
+    // rewrites the deck until it is killed
+    public static class CrashingWriter {
+        public static void main(String[] args) throws IOException {
+            final Map<String, FlashCard> flashCards = syntheticCards();
+
+            System.out.println("writing");
+            System.out.flush();
+
+            for (int i = 0; ; i++)
+                DeckFileParser.saveToFile(args[0], REWRITE + i, new HashSet<>(), flashCards, DeckFileFormat.TEXT);
+        }
+    }
+}
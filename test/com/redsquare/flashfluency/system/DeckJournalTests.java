@@ -0,0 +1,76 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.Deck;
+import com.redsquare.flashfluency.logic.FlashCard;
+import com.redsquare.flashfluency.logic.Pot;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class DeckJournalTests {
+    @Test
+    public void reviewOfLegacyDeckSurvivesRestart() throws Exception {
+        final File dir = Files.createTempDirectory("ff-journal").toFile();
+        final File file = new File(dir, "old" + Settings.DECK_FILE_EXTENSION);
+
+        Files.writeString(file.toPath(), "description:old deck\ntags:\nflash_cards:\n" +
+                "hola;hello;true;3-4-2022;C;2\n" +
+                "adios;goodbye;false;1-12-2021;NEW;1\n");
+
+        try {
+            final Deck deck = DeckFileParser.read("old", file.getPath());
+            final FlashCard hola = deck.getFlashCard("hola");
+
+            hola.adjustFromAnswer(true);
+            hola.updateRecord(true);
+            deck.saveReviewedCards();
+            BackgroundWriter.flush();
+
+            // as read on the next start of the program
+            final FlashCard reread = DeckFileParser.read("old", file.getPath()).getFlashCard("hola");
+
+            Assert.assertEquals(hola.getCode(), reread.getCode());
+            Assert.assertEquals(hola.getPot(), reread.getPot());
+            Assert.assertEquals(hola.getPotCounter(), reread.getPotCounter());
+            Assert.assertEquals(1, reread.getAttemptedInTests());
+            Assert.assertEquals(Pot.NEW,
+                    DeckFileParser.read("old", file.getPath()).getFlashCard("adios").getPot());
+        } finally {
+            FileIOHelper.deleteFileFootprint(DeckJournal.journalFilepath(file.getPath()));
+            file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void summaryIsStaleOnceJournalGrows() throws Exception {
+        final File dir = Files.createTempDirectory("ff-journal").toFile();
+        final File file = new File(dir, "deck" + Settings.DECK_FILE_EXTENSION);
+        final Path journal = Path.of(DeckJournal.journalFilepath(file.getPath()));
+
+        Files.writeString(file.toPath(), "description:deck\ntags:\nflash_cards:\n");
+
+        try {
+            final Deck deck = DeckFileParser.read("deck", file.getPath());
+            Assert.assertTrue(DeckSummaryIndex.get(file.getPath()).isPresent());
+
+            // as left by a review whose summary never made it into the saved index
+            Files.writeString(journal, "entry\n", StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            Assert.assertTrue(DeckSummaryIndex.get(file.getPath()).isEmpty());
+
+            DeckSummaryIndex.record(file.getPath(), deck.summarize());
+            Assert.assertTrue(DeckSummaryIndex.get(file.getPath()).isPresent());
+
+            DeckJournal.discard(file.getPath());
+            Assert.assertTrue(DeckSummaryIndex.get(file.getPath()).isPresent());
+        } finally {
+            FileIOHelper.deleteFileFootprint(journal.toString());
+            file.delete();
+            dir.delete();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.Deck;
+import com.redsquare.flashfluency.logic.FlashCard;
+import com.redsquare.flashfluency.logic.Pot;
+import com.redsquare.flashfluency.logic.SessionClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+
+public class DueCountTests {
+    private static final String THRESHOLD = "columnar_storage_threshold";
+    private static final int CARDS_PER_DECK = 10;
+
+    @Test
+    public void cardsFallDueAsDaysPass() {
+        final int previous = Settings.getColumnarStorageThreshold();
+
+        try {
+            final FFDirectory root = FFDirectory.createRoot();
+
+            Settings.set(THRESHOLD, "0");
+            final Deck objects = addDeck(root.addChildDirectoryR("objects"), "words");
+            Settings.set(THRESHOLD, "1");
+            final Deck columns = addDeck(root.addChildDirectoryR("columns"), "phrases");
+
+            int elapsed = 0;
+
+            // one card of each deck is due today, and one more falls due with each day
+            for (int days : new int[] { 0, 3, 2, 15 }) {
+                SessionClock.advanceDays(days);
+                elapsed += days;
+                final int due = Math.min(elapsed + 1, CARDS_PER_DECK);
+
+                Assert.assertEquals(due, objects.getNumDueFlashCards());
+                Assert.assertEquals(due, columns.getNumDueFlashCards());
+                Assert.assertEquals(due, root.getChild("objects").getStatistics().getNumDueFlashCards());
+                Assert.assertEquals(2 * due, root.getStatistics().getNumDueFlashCards());
+            }
+        } finally {
+            SessionClock.setClock(Clock.systemDefaultZone());
+            Settings.set(THRESHOLD, String.valueOf(previous));
+            FFDirectory.resetLibraryIndexes();
+        }
+    }
+
+    private static Deck addDeck(final FFDirectory directory, final String name) {
+        final FFDeckFile deckFile = directory.addDeckR(name);
+        final Map<String, FlashCard> flashCards = new HashMap<>();
+
+        for (int i = 0; i < CARDS_PER_DECK; i++) {
+            final String clue = "clue " + i;
+            flashCards.put(clue, FlashCard.fromParsedDeckFile(clue, "answer " + i,
+                    true, SessionClock.todayDate().plusDays(i), Pot.A,
+                    0, 0, 0, FlashCard.generateNewCode()));
+        }
+
+        final Deck deck = Deck.fromImportedFlashCards(name, deckFile.getFilepath(), flashCards);
+        deckFile.setAssociatedDeck(deck);
+        return deck;
+    }
+}
@@ -0,0 +1,54 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.Deck;
+import com.redsquare.flashfluency.logic.FlashCard;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+
+public class ImportTests {
+    // quoted CSV fields may hold line breaks and semicolons, which a text deck file cannot
+    private static final String CSV = "hola,hello\n" +
+            "\"dos\nlineas\",two lines\n" +
+            "tres,\"three\r\nlines\"\n" +
+            "\"uno;dos\",one and two\n" +
+            "adios,\"good;bye\"\n" +
+            "gracias,thanks\n";
+
+    @Test
+    public void unstorableRecordsAreNotImportedIntoDeck() throws Exception {
+        final File dir = Files.createTempDirectory("ff-import").toFile();
+        final File csv = new File(dir, "words" + CardFileReader.CSV_EXTENSION);
+        Files.writeString(csv.toPath(), CSV);
+
+        try {
+            final Deck deck = Deck.createNew("words", "");
+            deck.importCards(csv.getPath(), false);
+
+            Assert.assertEquals(Set.of("hola", "gracias"), deck.getFlashCardClues());
+        } finally {
+            csv.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void unstorableRecordsAreNotImportedFromFolder() throws Exception {
+        final File dir = Files.createTempDirectory("ff-import").toFile();
+        final File csv = new File(dir, "words" + CardFileReader.CSV_EXTENSION);
+        Files.writeString(csv.toPath(), CSV);
+
+        try {
+            final Map<String, FlashCard> flashCards = FolderImporter.readFlashCards(csv.toPath());
+
+            Assert.assertEquals(Set.of("hola", "gracias"), flashCards.keySet());
+        } finally {
+            csv.delete();
+            dir.delete();
+        }
+    }
+}
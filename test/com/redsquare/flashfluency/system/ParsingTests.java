@@ -0,0 +1,155 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.Deck;
+import com.redsquare.flashfluency.logic.FlashCard;
+import com.redsquare.flashfluency.logic.Pot;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.*;
+
+public class ParsingTests {
+    @Test
+    public void directoryMirrorSurvivesEncodeAndParse() throws Exception {
+        try {
+            final FFDirectory root = FFDirectory.createRoot();
+            FFDirectory level = root;
+
+            for (int depth = 0; depth < 3; depth++) {
+                level.addDeck("deck " + depth);
+                level.addDeck("other deck " + depth);
+                level = level.addChildDirectoryR("level " + depth);
+            }
+
+            final StringWriter mirror = new StringWriter();
+            root.encode(mirror, 0);
+
+            final FFDirectory reparsed = FFDirectory.createRoot();
+            DirectoryParser.parse(new StringReader(mirror.toString()), reparsed);
+
+            final StringWriter reencoded = new StringWriter();
+            reparsed.encode(reencoded, 0);
+
+            Assert.assertEquals(mirror.toString(), reencoded.toString());
+            Assert.assertEquals(9, countNodes(reparsed));
+        } finally {
+            FFDirectory.resetLibraryIndexes();
+        }
+    }
+
+    @Test
+    public void deckFileSurvivesSaveAndRead() throws Exception {
+        final File dir = Files.createTempDirectory("ff-parse").toFile();
+        final String filepath = dir.getPath() + File.separator + "vocab" + Settings.DECK_FILE_EXTENSION;
+        final Map<String, FlashCard> flashCards = new HashMap<>();
+
+        flashCards.put("hola", FlashCard.fromParsedDeckFile("hola", "hello {hi|hey}", true,
+                LocalDate.of(2024, 2, 29), Pot.D, 3, 4, 9, FlashCard.generateNewCode()));
+        flashCards.put("adios", FlashCard.fromParsedDeckFile("adios", "goodbye", false,
+                LocalDate.of(1999, 12, 31), Pot.NEW, -1, 0, 0, FlashCard.generateNewCode()));
+        // a year that would share its date cache key with the one above if the key were an int
+        flashCards.put("siempre", FlashCard.fromParsedDeckFile("siempre", "always", true,
+                LocalDate.of(1999 + (1 << 23), 12, 31), Pot.F, 0, 1, 1, FlashCard.generateNewCode()));
+
+        try {
+            DeckFileParser.saveToFile(filepath, "a deck", Set.of("a", "b"), flashCards);
+            final Deck parsed = DeckFileParser.read("vocab", filepath);
+
+            Assert.assertEquals("a deck", parsed.getDescription());
+            Assert.assertEquals(Set.of("a", "b"), parsed.getTags());
+            Assert.assertEquals(flashCards.size(), parsed.getNumOfFlashCards());
+
+            for (String clue : flashCards.keySet())
+                assertSameCard(flashCards.get(clue), parsed.getFlashCard(clue));
+        } finally {
+            new File(filepath).delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void binaryDeckStaysBinaryWhenMoved() throws Exception {
+        final File dir = Files.createTempDirectory("ff-move").toFile();
+        final String from = dir.getPath() + File.separator + "vocab" + Settings.DECK_FILE_EXTENSION,
+                to = dir.getPath() + File.separator + "moved" + Settings.DECK_FILE_EXTENSION;
+        final Map<String, FlashCard> flashCards = new HashMap<>();
+
+        flashCards.put("hola", FlashCard.createNew("hola", "hello"));
+
+        try {
+            DeckFileParser.saveToFile(from, "a deck", new HashSet<>(), flashCards, DeckFileFormat.BINARY);
+            final Deck deck = DeckFileParser.read("vocab", from);
+
+            deck.updateFilepath(to);
+            BackgroundWriter.flush();
+
+            Assert.assertFalse(new File(from).exists());
+            Assert.assertEquals(DeckFileFormat.BINARY, DeckFileFormat.detect(to));
+            Assert.assertEquals("hello", DeckFileParser.read("moved", to).getFlashCard("hola").getAnswer());
+        } finally {
+            FileIOHelper.deleteFileFootprint(from);
+            FileIOHelper.deleteFileFootprint(to);
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void deckFileParseLegacyFormats() throws Exception {
+        final File dir = Files.createTempDirectory("ff-legacy").toFile();
+        final File deck = new File(dir, "old" + Settings.DECK_FILE_EXTENSION);
+
+        Files.writeString(deck.toPath(), "description:old deck\r\ntags:x,,y\r\nflash_cards:\r\n" +
+                "hola;hello;true;3-4-2022;C;2\r\n" +
+                "adios;goodbye;false;1-12-2021;A;-1;5/7;QW3RTY12;\r\n" +
+                "\r\nignored;after;blank;line");
+
+        try {
+            final Deck parsed = DeckFileParser.read("old", deck.getPath());
+
+            Assert.assertEquals("old deck", parsed.getDescription());
+            Assert.assertEquals(Set.of("x", "y"), parsed.getTags());
+            Assert.assertEquals(2, parsed.getNumOfFlashCards());
+
+            final FlashCard hola = parsed.getFlashCard("hola"), adios = parsed.getFlashCard("adios");
+            Assert.assertEquals(LocalDate.of(2022, 4, 3), hola.getDue());
+            Assert.assertEquals(Pot.C, hola.getPot());
+            Assert.assertEquals(8, hola.getCode().length());
+            Assert.assertEquals(-1, adios.getPotCounter());
+            Assert.assertEquals(5, adios.getCorrectInTests());
+            Assert.assertEquals(7, adios.getAttemptedInTests());
+            Assert.assertEquals("QW3RTY12", adios.getCode());
+        } finally {
+            deck.delete();
+            dir.delete();
+        }
+    }
+
+    private static void assertSameCard(final FlashCard expected, final FlashCard actual) {
+        Assert.assertEquals(expected.getAnswer(), actual.getAnswer());
+        Assert.assertEquals(expected.isIntroduced(), actual.isIntroduced());
+        Assert.assertEquals(expected.getDue(), actual.getDue());
+        Assert.assertEquals(expected.getPot(), actual.getPot());
+        Assert.assertEquals(expected.getPotCounter(), actual.getPotCounter());
+        Assert.assertEquals(expected.getCorrectInTests(), actual.getCorrectInTests());
+        Assert.assertEquals(expected.getAttemptedInTests(), actual.getAttemptedInTests());
+        Assert.assertEquals(expected.getCode(), actual.getCode());
+    }
+
+    private static int countNodes(final FFDirectory directory) {
+        int count = 0;
+
+        for (String childName : directory.getChildrenNames()) {
+            count++;
+
+            if (directory.getChild(childName) instanceof FFDirectory child)
+                count += countNodes(child);
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,73 @@
+package com.redsquare.flashfluency.system;
+
+import com.redsquare.flashfluency.logic.Deck;
+import com.redsquare.flashfluency.logic.FlashCard;
+import com.redsquare.flashfluency.logic.Pot;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+
+public class SortingTests {
+    private static final int DECKS = 40, DIRECTORIES = 3, CARDS_PER_DECK = 10;
+    private static final String FLAG_COMPLETION = "-c", FLAG_DUE = "-d";
+
+    @Test
+    public void directoriesComeFirstThenDecksByKey() {
+        try {
+            final FFDirectory directory = syntheticDirectory();
+            final List<FFFile> children = new ArrayList<>();
+
+            for (String name : directory.getChildrenNames())
+                children.add(directory.getChild(name));
+
+            for (String flag : new String[] { FLAG_COMPLETION, FLAG_DUE }) {
+                final List<FFFile> sorted = FFFile.sort(children, flag);
+                Assert.assertEquals(children.size(), sorted.size());
+
+                for (int i = 0; i < DIRECTORIES; i++)
+                    Assert.assertEquals("dir " + i, sorted.get(i).getName());
+
+                for (int i = DIRECTORIES + 1; i < sorted.size(); i++)
+                    Assert.assertTrue(key(sorted.get(i - 1), flag) >= key(sorted.get(i), flag));
+            }
+        } finally {
+            FFDirectory.resetLibraryIndexes();
+        }
+    }
+
+    private static FFDirectory syntheticDirectory() {
+        final FFDirectory root = FFDirectory.createRoot();
+        final Pot[] pots = Pot.values();
+        final Random random = new Random(7);
+
+        for (int i = 0; i < DIRECTORIES; i++)
+            root.addChildDirectory("dir " + i);
+
+        for (int d = 0; d < DECKS; d++) {
+            final String name = "deck " + d;
+            final FFDeckFile deckFile = root.addDeckR(name);
+            final Map<String, FlashCard> flashCards = new HashMap<>();
+
+            for (int i = 0; i < CARDS_PER_DECK; i++) {
+                final String clue = "clue " + i;
+                flashCards.put(clue, FlashCard.fromParsedDeckFile(clue, "answer " + i,
+                        true, LocalDate.now().plusDays(random.nextInt(20) - 10),
+                        pots[random.nextInt(pots.length)], 0, 0, 0, FlashCard.generateNewCode()));
+            }
+
+            deckFile.setAssociatedDeck(Deck.fromImportedFlashCards(name, deckFile.getFilepath(), flashCards));
+        }
+
+        return root;
+    }
+
+    private static int key(final FFFile file, final String flag) {
+        final FFDeckFile deckFile = (FFDeckFile) file;
+
+        return flag.equals(FLAG_COMPLETION)
+                ? deckFile.getSummary().getPercentageScore()
+                : deckFile.getSummary().getNumDueFlashCards();
+    }
+}